@@ -1,18 +1,41 @@
 package ru.practicum.shareit.baseClient;
 
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
-import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.DefaultResponseErrorHandler;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
-
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 public class BaseClient {
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(HttpHeaders.CONNECTION.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT), "keep-alive");
+    private static final ResponseErrorHandler STREAM_ERROR_HANDLER = new DefaultResponseErrorHandler();
     protected final RestTemplate rest;
+    protected final RestTemplate streamRest;
 
-    public BaseClient(RestTemplate rest) {
+    public BaseClient(RestTemplate rest, RestTemplate streamRest) {
         this.rest = rest;
+        this.streamRest = streamRest;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -27,6 +50,13 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<StreamingResponseBody> getStream(String path, Long userId, MediaType accept) {
+        HttpHeaders headers = defaultHeaders(HttpMethod.GET, userId);
+        headers.setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+        return exchangeRaw(streamRest, HttpMethod.GET, streamRest.getUriTemplateHandler().expand(path),
+                request -> request.getHeaders().addAll(headers), BaseClient::streamThrough);
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -42,6 +72,15 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
     }
 
+    protected ResponseEntity<Object> postStream(String path, Long userId, MediaType contentType, InputStream body) {
+        HttpHeaders headers = defaultHeaders(HttpMethod.POST, userId);
+        headers.setContentType(contentType);
+        return exchangeRaw(streamRest, HttpMethod.POST, streamRest.getUriTemplateHandler().expand(path), request -> {
+            request.getHeaders().addAll(headers);
+            ((StreamingHttpOutputMessage) request).setBody(out -> StreamUtils.copy(body, out));
+        }, BaseClient::passThrough);
+    }
+
     protected <T> ResponseEntity<Object> put(String path, long userId, T body) {
         return put(path, userId, null, body);
     }
@@ -89,42 +128,98 @@ public class BaseClient {
                                                           Long userId,
                                                           @Nullable Map<String, Object> parameters,
                                                           @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
-
-        ResponseEntity<Object> shareitServerResponse;
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(method, userId));
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        return exchangeRaw(rest, method, uri, rest.httpEntityCallback(requestEntity), BaseClient::passThrough);
+    }
+
+    private static <T> T exchangeRaw(RestTemplate template,
+                                     HttpMethod method,
+                                     URI uri,
+                                     RequestCallback requestCallback,
+                                     ResponseExtractor<T> responseExtractor) {
         try {
-            if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
-            } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+            ClientHttpRequest request = template.getRequestFactory().createRequest(uri, method);
+            requestCallback.doWithRequest(request);
+            return responseExtractor.extractData(request.execute());
+        } catch (IOException e) {
+            throw new ResourceAccessException(String.format("I/O error on %s request for \"%s\": %s",
+                    method, uri, e.getMessage()), e);
+        }
+    }
+
+    private static ResponseEntity<Object> passThrough(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = endToEndHeaders(response);
+        int status = response.getRawStatusCode();
+        if (status == HttpStatus.NO_CONTENT.value() || status == HttpStatus.NOT_MODIFIED.value()) {
+            response.close();
+            return ResponseEntity.status(status).headers(headers).build();
+        }
+        return ResponseEntity.status(status).headers(headers).body(new InputStreamResource(response.getBody()));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> streamThrough(ClientHttpResponse response)
+            throws IOException {
+        if (STREAM_ERROR_HANDLER.hasError(response)) {
+            try {
+                STREAM_ERROR_HANDLER.handleError(response);
+            } finally {
+                response.close();
             }
-        } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+        return ResponseEntity.status(response.getRawStatusCode())
+                .headers(endToEndHeaders(response))
+                .body(out -> {
+                    try {
+                        copyFlushing(response.getBody(), out);
+                    } finally {
+                        response.close();
+                    }
+                });
+    }
+
+    private static HttpHeaders endToEndHeaders(ClientHttpResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
     }
 
-    private HttpHeaders defaultHeaders(Long userId) {
+    private HttpHeaders defaultHeaders(HttpMethod method, Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setAccept(List.of(MediaType.APPLICATION_JSON));
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        if (method == HttpMethod.GET) {
+            forwardIfNoneMatch(headers);
+        }
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
+    private static void forwardIfNoneMatch(HttpHeaders headers) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            String ifNoneMatch = ((ServletRequestAttributes) attributes).getRequest()
+                    .getHeader(HttpHeaders.IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                headers.set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+            }
         }
+    }
 
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
-
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+    private static void copyFlushing(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            out.flush();
         }
-
-        return responseBuilder.build();
     }
-}
\ No newline at end of file
+}
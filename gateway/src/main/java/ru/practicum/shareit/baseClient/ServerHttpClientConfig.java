@@ -0,0 +1,95 @@
+package ru.practicum.shareit.baseClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ServerHttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-server.http.max-connections:200}") int maxConnections,
+            @Value("${shareit-server.http.max-connections-per-route:200}") int maxConnectionsPerRoute,
+            @Value("${shareit-server.http.validate-after-inactivity:PT2S}") Duration validateAfterInactivity,
+            MeterRegistry meterRegistry) {
+        return connectionManager(maxConnections, maxConnectionsPerRoute, validateAfterInactivity,
+                meterRegistry, "shareit-server");
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverStreamConnectionManager(
+            @Value("${shareit-server.http.stream-max-connections:50}") int maxConnections,
+            @Value("${shareit-server.http.validate-after-inactivity:PT2S}") Duration validateAfterInactivity,
+            MeterRegistry meterRegistry) {
+        return connectionManager(maxConnections, maxConnections, validateAfterInactivity,
+                meterRegistry, "shareit-server-stream");
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            @Qualifier("serverConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${shareit-server.http.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${shareit-server.http.pool-timeout:PT1S}") Duration poolTimeout,
+            @Value("${shareit-server.http.keep-alive:PT30S}") Duration keepAlive,
+            @Value("${shareit-server.http.idle-eviction:PT30S}") Duration idleEviction) {
+        return httpClient(connectionManager, connectTimeout, poolTimeout, keepAlive, idleEviction);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverStreamHttpClient(
+            @Qualifier("serverStreamConnectionManager") PoolingHttpClientConnectionManager connectionManager,
+            @Value("${shareit-server.http.connect-timeout:PT2S}") Duration connectTimeout,
+            @Value("${shareit-server.http.pool-timeout:PT1S}") Duration poolTimeout,
+            @Value("${shareit-server.http.keep-alive:PT30S}") Duration keepAlive,
+            @Value("${shareit-server.http.idle-eviction:PT30S}") Duration idleEviction) {
+        return httpClient(connectionManager, connectTimeout, poolTimeout, keepAlive, idleEviction);
+    }
+
+    private static PoolingHttpClientConnectionManager connectionManager(int maxConnections,
+                                                                        int maxConnectionsPerRoute,
+                                                                        Duration validateAfterInactivity,
+                                                                        MeterRegistry meterRegistry,
+                                                                        String name) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name)
+                .bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    private static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                  Duration connectTimeout,
+                                                  Duration poolTimeout,
+                                                  Duration keepAlive,
+                                                  Duration idleEviction) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setConnectionRequestTimeout((int) poolTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long announced = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return announced > 0 ? Math.min(announced, keepAlive.toMillis()) : keepAlive.toMillis();
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEviction.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
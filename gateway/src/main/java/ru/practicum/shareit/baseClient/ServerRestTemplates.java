@@ -0,0 +1,60 @@
+package ru.practicum.shareit.baseClient;
+
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.time.Duration;
+
+@Component
+public class ServerRestTemplates {
+    private final RestTemplateBuilder builder;
+    private final String serverUrl;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+    private final HttpComponentsClientHttpRequestFactory streamRequestFactory;
+
+    @Autowired
+    public ServerRestTemplates(RestTemplateBuilder builder,
+                               @Qualifier("serverHttpClient") HttpClient serverHttpClient,
+                               @Qualifier("serverStreamHttpClient") HttpClient serverStreamHttpClient,
+                               @Value("${shareit-server.url}") String serverUrl,
+                               @Value("${shareit-server.http.read-timeout:PT30S}") Duration readTimeout,
+                               @Value("${shareit-server.http.stream-read-timeout:PT30M}") Duration streamReadTimeout) {
+        this.builder = builder;
+        this.serverUrl = serverUrl;
+        this.requestFactory = requestFactory(serverHttpClient, readTimeout, true);
+        this.streamRequestFactory = requestFactory(serverStreamHttpClient, streamReadTimeout, false);
+    }
+
+    public RestTemplate create(String apiPrefix) {
+        return build(apiPrefix, requestFactory);
+    }
+
+    public RestTemplate createStreaming(String apiPrefix) {
+        RestTemplate template = build(apiPrefix, streamRequestFactory);
+        template.getInterceptors().clear();
+        return template;
+    }
+
+    private RestTemplate build(String apiPrefix, HttpComponentsClientHttpRequestFactory factory) {
+        return builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> factory)
+                .build();
+    }
+
+    private static HttpComponentsClientHttpRequestFactory requestFactory(HttpClient httpClient,
+                                                                         Duration readTimeout,
+                                                                         boolean bufferRequestBody) {
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout((int) readTimeout.toMillis());
+        factory.setBufferRequestBody(bufferRequestBody);
+        return factory;
+    }
+}
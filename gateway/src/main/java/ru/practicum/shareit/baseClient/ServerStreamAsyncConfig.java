@@ -0,0 +1,37 @@
+package ru.practicum.shareit.baseClient;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class ServerStreamAsyncConfig implements WebMvcConfigurer, DisposableBean {
+    private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    private final Duration streamTimeout;
+
+    public ServerStreamAsyncConfig(@Value("${shareit-server.http.stream-max-connections:50}") int maxStreams,
+                                   @Value("${shareit-server.http.stream-read-timeout:PT30M}") Duration streamTimeout) {
+        executor.setCorePoolSize(maxStreams);
+        executor.setMaxPoolSize(maxStreams);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setThreadNamePrefix("server-stream-");
+        executor.initialize();
+        this.streamTimeout = streamTimeout;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(executor);
+        configurer.setDefaultTimeout(streamTimeout.toMillis());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
@@ -1,16 +1,17 @@
 package ru.practicum.shareit.booking.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.baseClient.BaseClient;
+import ru.practicum.shareit.baseClient.ServerRestTemplates;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -18,13 +19,8 @@ public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public BookingClient(ServerRestTemplates restTemplates) {
+        super(restTemplates.create(API_PREFIX), restTemplates.createStreaming(API_PREFIX));
     }
 
     public ResponseEntity<Object> createBooking(long userId, BookingCreateDto bookingCreateDto) {
@@ -35,6 +31,10 @@ public class BookingClient extends BaseClient {
         return get("/" + bookingId, userId);
     }
 
+    public ResponseEntity<Object> getBookings(long userId, List<Long> ids) {
+        return get("?ids={ids}", userId, Map.of("ids", StringUtils.collectionToCommaDelimitedString(ids)));
+    }
+
     public ResponseEntity<Object> approveBooking(long userId, long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
@@ -58,4 +58,8 @@ public class BookingClient extends BaseClient {
         );
         return get(apiPrefixOwner + "?state={state}&from={from}&size={size}", userId, parameters);
     }
+
+    public ResponseEntity<StreamingResponseBody> exportByItemsOwner(String apiPrefixOwner, long userId) {
+        return getStream(apiPrefixOwner + "/export", userId, MediaType.APPLICATION_NDJSON);
+    }
 }
\ No newline at end of file
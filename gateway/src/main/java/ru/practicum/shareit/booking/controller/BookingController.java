@@ -6,14 +6,18 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.client.BookingClient;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
 import javax.validation.constraints.PositiveOrZero;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -40,6 +44,14 @@ public class BookingController {
         return bookingClient.getBooking(userId, bookingId);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getBookings(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestParam(name = "ids") @NotEmpty @Size(max = 100) List<@Positive Long> ids) {
+        log.info("Get bookings by ids={}, userId={}", ids, userId);
+        return bookingClient.getBookings(userId, ids);
+    }
+
     @PatchMapping("{bookingId}")
     public ResponseEntity<Object> approveBooking(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
@@ -71,6 +83,13 @@ public class BookingController {
         return bookingClient.getAllByItemsOwner(API_PREFIX_OWNER, userId, state, from, size);
     }
 
+    @GetMapping(API_PREFIX_OWNER + "/export")
+    public ResponseEntity<StreamingResponseBody> exportByItemsOwner(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
+        log.info("Export bookings by itemsOwnerId={}", userId);
+        return bookingClient.exportByItemsOwner(API_PREFIX_OWNER, userId);
+    }
+
     private BookingState validateParamAndReturnBookingState(String bookingState) {
         return BookingState.from(bookingState).orElseThrow(() ->
                 new IllegalArgumentException("Unknown state: " + bookingState));
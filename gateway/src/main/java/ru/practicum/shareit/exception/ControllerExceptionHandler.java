@@ -1,9 +1,13 @@
 package ru.practicum.shareit.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
 import ru.practicum.shareit.exception.model.ErrorResponse;
 
 import javax.validation.ConstraintViolationException;
@@ -22,4 +26,19 @@ public class ControllerExceptionHandler {
     public ErrorResponse handleIllegalArgumentException(Exception e) {
         return new ErrorResponse(e.getMessage());
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(ResourceAccessException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleResourceAccessException(ResourceAccessException e) {
+        return new ErrorResponse(e.getMessage());
+    }
+
+    @ExceptionHandler(RestClientResponseException.class)
+    public ResponseEntity<byte[]> handleRestClientResponseException(RestClientResponseException e) {
+        HttpHeaders headers = new HttpHeaders();
+        if (e.getResponseHeaders() != null && e.getResponseHeaders().getContentType() != null) {
+            headers.setContentType(e.getResponseHeaders().getContentType());
+        }
+        return ResponseEntity.status(e.getRawStatusCode()).headers(headers).body(e.getResponseBodyAsByteArray());
+    }
+}
@@ -1,17 +1,23 @@
 package ru.practicum.shareit.item.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.baseClient.BaseClient;
+import ru.practicum.shareit.baseClient.ServerRestTemplates;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSort;
+import ru.practicum.shareit.item.dto.TrendingPeriod;
 
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -19,21 +25,30 @@ public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public ItemClient(ServerRestTemplates restTemplates) {
+        super(restTemplates.create(API_PREFIX), restTemplates.createStreaming(API_PREFIX));
     }
 
     public ResponseEntity<Object> create(long userId, ItemCreateDto itemCreateDto) {
         return post("", userId, itemCreateDto);
     }
 
+    public ResponseEntity<Object> importItems(long userId, MediaType contentType, InputStream body) {
+        return postStream("/import", userId, contentType, body);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportItems(long userId) {
+        return getStream("/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+
     public ResponseEntity<Object> update(long itemId, long userId, ItemDto itemDto) {
         return patch("/" + itemId, userId, itemDto);
     }
 
+    public ResponseEntity<Object> updateAvailability(long userId, ItemAvailabilityDto itemAvailabilityDto) {
+        return patch("/availability", userId, itemAvailabilityDto);
+    }
+
     public ResponseEntity<Object> delete(long itemId, long userId) {
         return delete("/" + itemId, userId);
     }
@@ -42,6 +57,10 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
+    public ResponseEntity<Object> getByIds(long userId, List<Long> ids) {
+        return get("?ids={ids}", userId, Map.of("ids", StringUtils.collectionToCommaDelimitedString(ids)));
+    }
+
     public ResponseEntity<Object> getUserItems(long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
@@ -50,13 +69,45 @@ public class ItemClient extends BaseClient {
         return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> keywordSearch(String keyword, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
+    public ResponseEntity<Object> keywordSearch(String keyword, Integer from, Integer size, boolean facets,
+                                                ItemSort sort, String near, Double radius) {
+        Map<String, Object> parameters = new HashMap<>(Map.of(
                 "text", keyword,
                 "from", from,
+                "size", size,
+                "facets", facets,
+                "sort", sort.name()
+        ));
+        String path = "/search?text={text}&from={from}&size={size}&facets={facets}&sort={sort}";
+        if (near != null) {
+            parameters.put("near", near);
+            parameters.put("radius", radius);
+            path += "&near={near}&radius={radius}";
+        }
+        return get(path, null, parameters);
+    }
+
+    public ResponseEntity<Object> getTrending(TrendingPeriod period, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "period", period.name(),
+                "size", size
+        );
+        return get("/trending?period={period}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> getSimilar(long itemId) {
+        return get("/" + itemId + "/similar");
+    }
+
+    public ResponseEntity<Object> getComments(long itemId, long userId, String cursor, Integer size) {
+        if (cursor == null) {
+            return get("/" + itemId + "/comments?size={size}", userId, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", null, parameters);
+        return get("/" + itemId + "/comments?cursor={cursor}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(long itemId, long userId, CommentCreateDto commentCreateDto) {
@@ -2,18 +2,30 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.client.ItemClient;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSort;
+import ru.practicum.shareit.item.dto.TrendingPeriod;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequestMapping("/items")
@@ -30,6 +42,29 @@ public class ItemController {
         return itemClient.create(userId, itemCreateDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Object> importItems(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                              HttpServletRequest request) throws IOException {
+        log.info("Importing items, userId={}, contentType={}", userId, request.getContentType());
+        return itemClient.importItems(userId, MediaType.parseMediaType(request.getContentType()),
+                request.getInputStream());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
+        log.info("Export items, userId={}", userId);
+        return itemClient.exportItems(userId);
+    }
+
+    @PatchMapping("/availability")
+    public ResponseEntity<Object> updateAvailability(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
+                                                     @RequestBody @Valid ItemAvailabilityDto itemAvailabilityDto) {
+        log.info("Update availability of items, userId={}, available={}", userId,
+                itemAvailabilityDto.getAvailable());
+        return itemClient.updateAvailability(userId, itemAvailabilityDto);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> update(@RequestHeader("X-Sharer-User-Id") @Positive long userId,
                                          @PathVariable("itemId") @Positive long itemId,
@@ -61,15 +96,55 @@ public class ItemController {
         return itemClient.getUserItems(userId, from, size);
     }
 
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getByIds(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestParam(name = "ids") @NotEmpty @Size(max = 100) List<@Positive Long> ids) {
+        log.info("Get items by ids={}, userId={}", ids, userId);
+        return itemClient.getByIds(userId, ids);
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Object> keywordSearch(
             @RequestParam(name = "text", defaultValue = "") String keyword,
             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        if (keyword.isEmpty()) {
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(name = "facets", defaultValue = "false") boolean facets,
+            @RequestParam(name = "near", required = false) String near,
+            @RequestParam(name = "radius", defaultValue = "10") @Positive @DecimalMax("1000") Double radius,
+            @RequestParam(name = "sort", defaultValue = "id") String sort) {
+        ItemSort itemSort = ItemSort.from(sort).orElseThrow(() ->
+                new IllegalArgumentException("Unknown sort: " + sort));
+        if (keyword.isEmpty() && !facets && near == null) {
             return ResponseEntity.ok().body("[]");
         }
-        return itemClient.keywordSearch(keyword, from, size);
+        return itemClient.keywordSearch(keyword, from, size, facets, itemSort, near, radius);
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<Object> getTrending(
+            @RequestParam(name = "period", defaultValue = "hour") String period,
+            @RequestParam(name = "size", defaultValue = "10") @Positive @Max(100) Integer size) {
+        TrendingPeriod trendingPeriod = TrendingPeriod.from(period).orElseThrow(() ->
+                new IllegalArgumentException("Unknown period: " + period));
+        log.info("Get trending items, period={}, size={}", trendingPeriod, size);
+        return itemClient.getTrending(trendingPeriod, size);
+    }
+
+    @GetMapping("/{itemId}/similar")
+    public ResponseEntity<Object> getSimilar(@PathVariable("itemId") @Positive long itemId) {
+        log.info("Get similar items, itemId={}", itemId);
+        return itemClient.getSimilar(itemId);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<Object> getComments(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @PathVariable("itemId") @Positive long itemId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") @Positive @Max(100) Integer size) {
+        log.info("Get item comments, itemId={}, userId={}, cursor={}, size={}", itemId, userId, cursor, size);
+        return itemClient.getComments(itemId, userId, cursor, size);
     }
 
     @PostMapping("/{itemId}/comment")
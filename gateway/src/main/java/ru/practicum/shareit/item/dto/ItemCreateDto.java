@@ -1,21 +1,40 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 @Getter
 @Setter
 @AllArgsConstructor
 public class ItemCreateDto {
     @NotBlank
+    @Size(max = 255)
     private String name;
     @NotBlank
+    @Size(max = 512)
     private String description;
     @NotNull
     private Boolean available;
     private Long requestId;
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+
+    @AssertTrue(message = "latitude and longitude must be given together")
+    @JsonIgnore
+    public boolean isLocationComplete() {
+        return (latitude == null) == (longitude == null);
+    }
 }
\ No newline at end of file
@@ -6,7 +6,7 @@ import lombok.Setter;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 
-import java.util.Set;
+import java.util.List;
 
 @Getter
 @Setter
@@ -18,7 +18,10 @@ public class ItemDto {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    private Double latitude;
+    private Double longitude;
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
-    private Set<CommentDto> comments;
+    private Long commentsCount;
+    private List<CommentDto> comments;
 }
\ No newline at end of file
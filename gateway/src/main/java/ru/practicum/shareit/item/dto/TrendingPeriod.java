@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.dto;
+
+import java.util.Optional;
+
+public enum TrendingPeriod {
+    HOUR,
+    DAY;
+
+    public static Optional<TrendingPeriod> from(String stringPeriod) {
+        for (TrendingPeriod period : values()) {
+            if (period.name().equalsIgnoreCase(stringPeriod)) {
+                return Optional.of(period);
+            }
+        }
+        return Optional.empty();
+    }
+}
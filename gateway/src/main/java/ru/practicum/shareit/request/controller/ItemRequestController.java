@@ -2,10 +2,12 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.client.ItemRequestClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -31,18 +33,28 @@ public class ItemRequestController {
 
     @GetMapping
     public ResponseEntity<Object> getRequestsUser(
-            @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
-        log.info("Get requests user with id={}", userId);
-        return itemRequestClient.getRequestsByUser(userId);
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
+        log.info("Get requests user with id={}, from={}, size={}", userId, from, size);
+        return itemRequestClient.getRequestsByUser(userId, from, size);
     }
 
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "cursor", required = false) String cursor,
             @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        log.info("Get all requests, userId={}, from={}, size={}", userId, from, size);
-        return itemRequestClient.getAllRequests(userId, from, size);
+        log.info("Get all requests, userId={}, from={}, cursor={}, size={}", userId, from, cursor, size);
+        return itemRequestClient.getAllRequests(userId, from, cursor, size);
+    }
+
+    @GetMapping(value = "/matches", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMatches(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
+        log.info("Subscribe to request matches, userId={}", userId);
+        return itemRequestClient.streamMatches(userId);
     }
 
     @GetMapping("/{requestId}")
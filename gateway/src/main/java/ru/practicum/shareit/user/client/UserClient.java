@@ -1,26 +1,27 @@
 package ru.practicum.shareit.user.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.baseClient.BaseClient;
+import ru.practicum.shareit.baseClient.ServerRestTemplates;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public UserClient(ServerRestTemplates restTemplates) {
+        super(restTemplates.create(API_PREFIX), restTemplates.createStreaming(API_PREFIX));
     }
 
     public ResponseEntity<Object> create(UserCreateDto userCreateDto) {
@@ -39,7 +40,26 @@ public class UserClient extends BaseClient {
         return get("/" + userId, userId);
     }
 
-    public ResponseEntity<Object> getAll() {
-        return get("");
+    public ResponseEntity<Object> getByIds(List<Long> ids) {
+        return get("?ids={ids}", null, Map.of("ids", StringUtils.collectionToCommaDelimitedString(ids)));
+    }
+
+    public ResponseEntity<Object> getAll(String cursor, Integer size) {
+        if (cursor == null) {
+            return get("?size={size}", null, Map.of("size", size));
+        }
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", null, parameters);
+    }
+
+    public ResponseEntity<Object> importUsers(MediaType contentType, InputStream body) {
+        return postStream("/import", null, contentType, body);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return getStream("/export", null, MediaType.APPLICATION_NDJSON);
     }
 }
\ No newline at end of file
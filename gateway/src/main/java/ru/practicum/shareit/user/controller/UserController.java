@@ -2,16 +2,24 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.client.UserClient;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @Controller
 @RequestMapping("/users")
@@ -27,6 +35,12 @@ public class UserController {
         return userClient.create(userCreateDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Object> importUsers(HttpServletRequest request) throws IOException {
+        log.info("Importing users, contentType={}", request.getContentType());
+        return userClient.importUsers(MediaType.parseMediaType(request.getContentType()), request.getInputStream());
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<Object> update(@PathVariable("id") @Positive long userId,
                                              @RequestBody @Valid UserDto userDto) {
@@ -47,8 +61,22 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAll() {
-        log.info("Getting all users");
-        return userClient.getAll();
+    public ResponseEntity<Object> getAll(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "100") @Positive @Max(1000) Integer size) {
+        log.info("Getting users, cursor={}, size={}", cursor, size);
+        return userClient.getAll(cursor, size);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<Object> getByIds(@RequestParam(name = "ids") @NotEmpty @Size(max = 100) List<@Positive Long> ids) {
+        log.info("Get users by ids={}", ids);
+        return userClient.getByIds(ids);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Export users");
+        return userClient.exportUsers();
     }
 }
\ No newline at end of file
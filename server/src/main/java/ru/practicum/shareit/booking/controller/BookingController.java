@@ -1,12 +1,16 @@
 package ru.practicum.shareit.booking.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.lookup.LookupResultDto;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -37,6 +41,12 @@ public class BookingController {
         return bookingService.getById(userId, bookingId);
     }
 
+    @GetMapping(params = "ids")
+    public LookupResultDto<BookingDto> getByIds(@RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+                                                @RequestParam(name = "ids") List<Long> ids) {
+        return bookingService.getByIds(userId, ids);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto approve(
             @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
@@ -62,4 +72,12 @@ public class BookingController {
             @RequestParam(name = "size", required = false) @Positive Integer size) {
         return bookingService.getAllByItemsOwner(userId, state, from, size);
     }
+
+    @GetMapping(value = "/owner/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByItemsOwner(
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(bookingService.exportByItemsOwner(userId));
+    }
 }
\ No newline at end of file
@@ -1,25 +1,60 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.exporting.NdjsonExporter;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+    String SELECT_FETCHED = "select b from Booking b join fetch b.booker join fetch b.item i join fetch i.owner " +
+            "left join fetch i.request r left join fetch r.owner ";
 
     List<Booking> getBookingsByBookerId(Long bookerId);
 
+    @Query(SELECT_FETCHED +
+            "where b.booker.id = ?1 order by b.start desc")
     List<Booking> findAllByBooker_IdOrderByStartDesc(Long bookerId);
 
+    @Query(SELECT_FETCHED +
+            "where b.booker.id = ?1")
     List<Booking> getBookingsByBookerId(Long bookerId, Pageable pageable);
 
+    @Query(SELECT_FETCHED +
+            "where i.owner.id = ?1 order by b.start desc")
+    List<Booking> findAllByItemOwnerId(Long ownerId);
+
+    @Query(SELECT_FETCHED +
+            "where i.owner.id = ?1")
+    List<Booking> findAllByItemOwnerId(Long ownerId, Pageable pageable);
+
+    boolean existsByBooker_IdAndItem_IdAndStartBeforeAndEndBefore(Long bookerId, Long itemId,
+                                                                   LocalDateTime start, LocalDateTime end);
+
+    @Query("select b from Booking b join fetch b.booker where b.item = ?1")
     List<Booking> findBookingsByItem(Item item);
 
+    @Query("select b from Booking b join fetch b.booker where b.item.id = ?1")
     List<Booking> findBookingsByItem_Id(Long itemId);
 
-    Page<Booking> findAllByItemIn(Collection<Item> item, Pageable pageable);
+    @Query(SELECT_FETCHED +
+            "where b.id in ?1")
+    List<Booking> findAllByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_FETCHED +
+            "where i.owner.id = ?1 order by b.start desc")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Booking> streamAllByItemOwnerId(Long ownerId);
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.lookup.LookupResultDto;
 
 import java.util.List;
 
@@ -14,11 +16,15 @@ public interface BookingService {
 
     BookingDto getById(Long userId, Long bookingId);
 
+    LookupResultDto<BookingDto> getByIds(Long userId, List<Long> bookingIds);
+
     BookingDto approve(Long userId, Long bookingId, Boolean approved);
 
     List<BookingDto> getAllByBooker(Long userId, BookingState state, Integer from, Integer size);
 
     List<BookingDto> getAllByItemsOwner(Long userId, BookingState state, Integer from, Integer size);
 
+    StreamingResponseBody exportByItemsOwner(Long userId);
+
     List<Booking> getAllByItem(Item item);
 }
\ No newline at end of file
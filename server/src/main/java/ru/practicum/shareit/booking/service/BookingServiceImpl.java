@@ -5,6 +5,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -14,8 +15,13 @@ import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.exporting.NdjsonExporter;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.stats.ItemStatsCounter;
+import ru.practicum.shareit.item.trending.TrendingItems;
+import ru.practicum.shareit.lookup.IdLookup;
+import ru.practicum.shareit.lookup.LookupResultDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
@@ -30,15 +36,24 @@ public class BookingServiceImpl implements BookingService {
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final BookingMapper bookingMapper;
+    private final NdjsonExporter ndjsonExporter;
+    private final ItemStatsCounter itemStatsCounter;
+    private final TrendingItems trendingItems;
 
     public BookingServiceImpl(BookingRepository bookingRepository,
                               ItemRepository itemRepository,
                               UserService userService,
-                              BookingMapper bookingMapper) {
+                              BookingMapper bookingMapper,
+                              NdjsonExporter ndjsonExporter,
+                              ItemStatsCounter itemStatsCounter,
+                              TrendingItems trendingItems) {
         this.bookingRepository = bookingRepository;
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.bookingMapper = bookingMapper;
+        this.ndjsonExporter = ndjsonExporter;
+        this.itemStatsCounter = itemStatsCounter;
+        this.trendingItems = trendingItems;
     }
 
     @Override
@@ -53,14 +68,17 @@ public class BookingServiceImpl implements BookingService {
         if (userId.equals(item.getOwner().getId())) {
             throw new NotFoundException("Item cannot be booked by the owner");
         }
+        if (!item.getAvailable()) {
+            throw new ValidationException("Item is not available");
+        }
         booking.setItem(item);
         booking.setBooker(user);
         booking.setStatus(BookingStatus.WAITING);
-        if (booking.getItem().getAvailable()) {
-            log.info("Item is booked: id={}", booking.getItem().getId());
-            return bookingMapper.toBookingDto(bookingRepository.save(booking));
-        }
-        throw new ValidationException("Item is not available");
+        log.info("Item is booked: id={}", item.getId());
+        BookingDto bookingDto = bookingMapper.toBookingDto(bookingRepository.save(booking));
+        itemStatsCounter.increment(item.getId());
+        trendingItems.recordBooking(item.getId());
+        return bookingDto;
     }
 
     @Override
@@ -73,6 +91,16 @@ public class BookingServiceImpl implements BookingService {
         throw new NotFoundException(String.format("Wrong user id=%d", userId));
     }
 
+    @Override
+    public LookupResultDto<BookingDto> getByIds(Long userId, List<Long> bookingIds) {
+        return IdLookup.lookup(bookingIds, ids -> bookingRepository.findAllByIdIn(ids)
+                .stream()
+                .filter(booking -> booking.getBooker().getId().equals(userId)
+                        || booking.getItem().getOwner().getId().equals(userId))
+                .map(bookingMapper::toBookingDto)
+                .collect(Collectors.toList()), BookingDto::getId);
+    }
+
     @Override
     public BookingDto approve(Long userId, Long bookingId, Boolean approved) {
         Booking booking = validateIsBookingIdExistAndReturnBooking(bookingId);
@@ -83,7 +111,11 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Only owner can change the booking status");
         }
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return bookingMapper.toBookingDto(bookingRepository.save(booking));
+        BookingDto bookingDto = bookingMapper.toBookingDto(bookingRepository.save(booking));
+        if (!approved) {
+            itemStatsCounter.decrement(booking.getItem().getId());
+        }
+        return bookingDto;
     }
 
     @Override
@@ -105,24 +137,15 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public List<BookingDto> getAllByItemsOwner(Long userId, BookingState state, Integer from, Integer size) {
         validateUserId(userId);
-        List<Item> items = itemRepository.findAllByOwnerId(userId);
-        if (items.isEmpty()) {
-            throw new NotFoundException(String.format("User id=%d has no items", userId));
-        }
         List<Booking> bookings;
         if (from == null || size == null) {
-            Set<Long> itemsIdByOwner = items
-                    .stream()
-                    .map(Item::getId)
-                    .collect(Collectors.toSet());
-            bookings = bookingRepository.findAll()
-                    .stream()
-                    .filter(s -> itemsIdByOwner.contains(s.getItem().getId()))
-                    .sorted(Comparator.comparing(Booking::getStart).reversed())
-                    .collect(Collectors.toList());
+            bookings = bookingRepository.findAllByItemOwnerId(userId);
         } else {
             Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-            bookings = bookingRepository.findAllByItemIn(items, pageable).getContent();
+            bookings = bookingRepository.findAllByItemOwnerId(userId, pageable);
+        }
+        if (bookings.isEmpty() && !itemRepository.existsByOwnerId(userId)) {
+            throw new NotFoundException(String.format("User id=%d has no items", userId));
         }
         return getBookingsByState(state, bookings)
                 .stream()
@@ -130,6 +153,14 @@ public class BookingServiceImpl implements BookingService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public StreamingResponseBody exportByItemsOwner(Long userId) {
+        validateUserId(userId);
+        log.info("Export of bookings started for owner id={}", userId);
+        return ndjsonExporter.export(() -> bookingRepository.streamAllByItemOwnerId(userId),
+                bookingMapper::toBookingDto);
+    }
+
     public List<Booking> getAllByItem(Item item) {
         return bookingRepository.findBookingsByItem(item);
     }
@@ -174,7 +205,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void validateUserId(Long userId) {
-        userService.getById(userId);
+        userService.checkExists(userId);
     }
 
     private Booking validateIsBookingIdExistAndReturnBooking(Long bookingId) {
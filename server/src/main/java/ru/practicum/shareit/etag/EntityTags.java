@@ -0,0 +1,36 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.StringJoiner;
+import java.util.function.Function;
+
+public final class EntityTags {
+    private static final String SEPARATOR = "|";
+
+    private EntityTags() {
+    }
+
+    public static String of(Object... parts) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return hash(joiner.toString());
+    }
+
+    public static <T> String ofAll(Collection<T> values, Function<T, Object> fingerprint) {
+        StringJoiner joiner = new StringJoiner(SEPARATOR);
+        joiner.add(String.valueOf(values.size()));
+        for (T value : values) {
+            joiner.add(String.valueOf(fingerprint.apply(value)));
+        }
+        return hash(joiner.toString());
+    }
+
+    private static String hash(String value) {
+        return "\"" + DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+public final class ForeignKeyViolations {
+    private static final Set<String> FOREIGN_KEY_SQL_STATES = Set.of("23503", "23506");
+
+    private ForeignKeyViolations() {
+    }
+
+    public static boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+        Throwable cause = e.getMostSpecificCause();
+        return cause instanceof SQLException
+                && FOREIGN_KEY_SQL_STATES.contains(((SQLException) cause).getSQLState());
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.exporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+@Component
+public class NdjsonExporter {
+    public static final String FETCH_SIZE = "500";
+    private static final byte NEW_LINE = '\n';
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter objectWriter;
+    private final int clearInterval;
+    private final EntityManager entityManager;
+
+    @Autowired
+    public NdjsonExporter(EntityManager entityManager,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          @Value("${shareit.export.clear-interval:500}") int clearInterval) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectWriter = objectMapper.writer();
+        this.clearInterval = clearInterval;
+        this.entityManager = entityManager;
+    }
+
+    public <T> StreamingResponseBody export(Supplier<Stream<T>> query, Function<T, ?> mapper) {
+        return out -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                write(rows.iterator(), mapper, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private <T> void write(Iterator<T> rows, Function<T, ?> mapper, OutputStream out) throws IOException {
+        long written = 0;
+        while (rows.hasNext()) {
+            out.write(objectWriter.writeValueAsBytes(mapper.apply(rows.next())));
+            out.write(NEW_LINE);
+            if (++written % clearInterval == 0) {
+                entityManager.clear();
+            }
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.geo;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class GeoHash {
+    public static final int MAX_PRECISION = 12;
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private GeoHash() {
+    }
+
+    public static String encode(double latitude, double longitude) {
+        return encode(latitude, longitude, MAX_PRECISION);
+    }
+
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLon = -180;
+        double maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int index = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    index = index * 2 + 1;
+                    minLon = mid;
+                } else {
+                    index = index * 2;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    index = index * 2 + 1;
+                    minLat = mid;
+                } else {
+                    index = index * 2;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(index));
+                bit = 0;
+                index = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    public static Set<String> coveringCells(GeoPoint center, double radiusKm) {
+        double latDelta = radiusKm / GeoPoint.KM_PER_DEGREE;
+        double lonDelta = radiusKm / (GeoPoint.KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(center.getLatitude())), 0.01));
+        int precision = 0;
+        for (int p = 1; p <= MAX_PRECISION; p++) {
+            if (cellHeight(p) < latDelta || cellWidth(p) < lonDelta) {
+                break;
+            }
+            precision = p;
+        }
+        if (precision == 0) {
+            return Collections.emptySet();
+        }
+        Set<String> cells = new LinkedHashSet<>();
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                double latitude = Math.max(-90, Math.min(90, center.getLatitude() + dy * height));
+                double longitude = wrapLongitude(center.getLongitude() + dx * width);
+                cells.add(encode(latitude, longitude, precision));
+            }
+        }
+        return cells;
+    }
+
+    private static double cellHeight(int precision) {
+        return 180 / Math.pow(2, Math.floor(precision * 5 / 2.0));
+    }
+
+    private static double cellWidth(int precision) {
+        return 360 / Math.pow(2, Math.ceil(precision * 5 / 2.0));
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.geo;
+
+import lombok.Value;
+import ru.practicum.shareit.exception.ValidationException;
+
+@Value
+public class GeoPoint {
+    public static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    double latitude;
+    double longitude;
+
+    public static GeoPoint parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2) {
+            throw new ValidationException(String.format("Invalid coordinates: %s", value));
+        }
+        try {
+            return of(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            throw new ValidationException(String.format("Invalid coordinates: %s", value));
+        }
+    }
+
+    public static GeoPoint of(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new ValidationException(String.format("Invalid coordinates: %s,%s", latitude, longitude));
+        }
+        return new GeoPoint(latitude, longitude);
+    }
+
+    public double distanceKm(double latitude, double longitude) {
+        double dLat = Math.toRadians(latitude - this.latitude);
+        double dLon = Math.toRadians(longitude - this.longitude);
+        double a = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(Math.toRadians(this.latitude))
+                * Math.cos(Math.toRadians(latitude)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
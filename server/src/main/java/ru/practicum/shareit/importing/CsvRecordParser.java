@@ -0,0 +1,75 @@
+package ru.practicum.shareit.importing;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+public class CsvRecordParser {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public CsvRecordParser(String header, String... requiredColumns) {
+        if (header == null) {
+            throw new ValidationException("CSV header is missing");
+        }
+        List<String> names = split(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : requiredColumns) {
+            if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                throw new ValidationException("CSV header has no column: " + column);
+            }
+        }
+    }
+
+    public Map<String, String> parse(String line) {
+        List<String> values = split(line);
+        if (values.size() != columns.size()) {
+            throw new ValidationException(String.format("Expected %d columns but found %d",
+                    columns.size(), values.size()));
+        }
+        Map<String, String> record = new HashMap<>();
+        columns.forEach((name, index) -> {
+            String value = values.get(index);
+            record.put(name, value.isEmpty() ? null : value);
+        });
+        return record;
+    }
+
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == QUOTE && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                    value.append(QUOTE);
+                    i++;
+                } else if (c == QUOTE) {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
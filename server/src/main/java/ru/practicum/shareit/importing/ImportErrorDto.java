@@ -0,0 +1,9 @@
+package ru.practicum.shareit.importing;
+
+import lombok.Value;
+
+@Value
+public class ImportErrorDto {
+    long line;
+    String message;
+}
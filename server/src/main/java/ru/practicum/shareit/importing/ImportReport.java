@@ -0,0 +1,30 @@
+package ru.practicum.shareit.importing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private final List<ImportErrorDto> errors = new ArrayList<>();
+    private long imported;
+    private long failed;
+
+    public void addImported(int count) {
+        imported += count;
+    }
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ImportErrorDto(line, message));
+        }
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public ImportResultDto toImportResultDto() {
+        return new ImportResultDto(imported, failed, List.copyOf(errors));
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.importing;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ImportResultDto {
+    long imported;
+    long failed;
+    List<ImportErrorDto> errors;
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.Collection;
+
+@Component
+public class ItemCache {
+    private final Cache<Long, ItemSnapshot> cache;
+    private final ItemRepository itemRepository;
+    private final ItemMapper itemMapper;
+
+    public ItemCache(ItemRepository itemRepository,
+                     ItemMapper itemMapper,
+                     @Value("${shareit.cache.items.maximum-size:10000}") long maximumSize,
+                     MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.itemMapper = itemMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+    }
+
+    public ItemSnapshot get(Long itemId) {
+        ItemSnapshot item = cache.get(itemId, id -> itemRepository.findById(id)
+                .map(itemMapper::toItemSnapshot)
+                .orElse(null));
+        if (item == null) {
+            throw new NotFoundException(String.format("Item not found: id=%d", itemId));
+        }
+        return item;
+    }
+
+    public void put(ItemSnapshot item) {
+        cache.put(item.getId(), item);
+    }
+
+    public void invalidate(Long itemId) {
+        cache.invalidate(itemId);
+    }
+
+    public void invalidateAll(Collection<Long> itemIds) {
+        cache.invalidateAll(itemIds);
+    }
+
+    public void invalidateOwner(Long ownerId) {
+        cache.asMap().values().removeIf(item -> ownerId.equals(item.getOwnerId()));
+    }
+}
@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.model.ItemSearchSnapshot;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.model.ItemSort;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class ItemSearchCache {
+    private static final String CACHE_NAME = "itemSearch";
+    private static final String SNAPSHOT_CACHE_NAME = "itemSearchSnapshot";
+    private final Cache<SearchKey, List<Long>> cache;
+    private final Cache<SnapshotKey, ItemSearchSnapshot> snapshots;
+    private final AtomicLong generation = new AtomicLong();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ItemSearchCache(@Value("${shareit.cache.search.maximum-weight:100000}") long maximumWeight,
+                           @Value("${shareit.cache.search.snapshot-expire-after:PT1M}") Duration snapshotExpireAfter,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((SearchKey key, List<Long> ids) -> ids.size() + 1)
+                .recordStats()
+                .build();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((SnapshotKey key, ItemSearchSnapshot snapshot) -> snapshot.getIds().size() + 1)
+                .expireAfterWrite(snapshotExpireAfter)
+                .recordStats()
+                .build();
+        monitor(meterRegistry, cache, CACHE_NAME);
+        monitor(meterRegistry, snapshots, SNAPSHOT_CACHE_NAME);
+    }
+
+    public List<Long> get(String text, int from, int size, Supplier<List<Long>> loader) {
+        SearchKey key = new SearchKey(normalize(text), from, size);
+        List<Long> ids = cache.getIfPresent(key);
+        if (ids != null) {
+            return ids;
+        }
+        long stamp = generation.get();
+        ids = List.copyOf(loader.get());
+        lock.readLock().lock();
+        try {
+            if (stamp == generation.get()) {
+                cache.put(key, ids);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return ids;
+    }
+
+    public ItemSearchSnapshot getSnapshot(String text, ItemSort sort, @Nullable GeoPoint center, double radiusKm,
+                                          Supplier<ItemSearchSnapshot> loader) {
+        SnapshotKey key = new SnapshotKey(normalize(text), sort, center, center != null ? radiusKm : 0);
+        ItemSearchSnapshot snapshot = snapshots.getIfPresent(key);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long stamp = generation.get();
+        snapshot = loader.get();
+        lock.readLock().lock();
+        try {
+            if (stamp == generation.get()) {
+                snapshots.put(key, snapshot);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return snapshot;
+    }
+
+    public void invalidate(ItemSnapshot... states) {
+        lock.writeLock().lock();
+        try {
+            generation.incrementAndGet();
+            Map<String, Boolean> affected = new HashMap<>();
+            cache.asMap().keySet().removeIf(key -> affected.computeIfAbsent(key.getText(), text ->
+                    matchesAny(text, states)));
+            Map<String, Boolean> affectedSnapshots = new HashMap<>();
+            snapshots.asMap().keySet().removeIf(key -> affectedSnapshots.computeIfAbsent(key.getText(), text ->
+                    mentionedByAny(text, states)));
+            log.debug("Search cache invalidated for texts {}", affected);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            generation.incrementAndGet();
+            cache.invalidateAll();
+            snapshots.invalidateAll();
+            log.debug("Search cache cleared");
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean matchesAny(String text, ItemSnapshot... states) {
+        for (ItemSnapshot item : states) {
+            if (item != null && Boolean.TRUE.equals(item.getAvailable())
+                    && (contains(item.getName(), text) || contains(item.getDescription(), text))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean mentionedByAny(String text, ItemSnapshot... states) {
+        for (ItemSnapshot item : states) {
+            if (item != null && (contains(item.getName(), text) || contains(item.getDescription(), text))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void monitor(MeterRegistry meterRegistry, Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    private static boolean contains(String value, String normalizedText) {
+        return value != null && normalize(value).contains(normalizedText);
+    }
+
+    private static String normalize(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toUpperCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class SearchKey {
+        private final String text;
+        private final int from;
+        private final int size;
+    }
+
+    @Getter
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class SnapshotKey {
+        private final String text;
+        private final ItemSort sort;
+        private final GeoPoint center;
+        private final double radiusKm;
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.comment.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@AllArgsConstructor
 public class CommentDto {
     private Long id;
     private String text;
@@ -1,10 +1,29 @@
 package ru.practicum.shareit.item.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 
-import java.util.Set;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    Set<Comment> findCommentsByItem_Id(Long itemId);
-}
\ No newline at end of file
+    String SELECT_DTO = "select new ru.practicum.shareit.item.comment.dto.CommentDto(c.id, c.text, a.name, c.created) " +
+            "from Comment c join c.author a ";
+    String ORDER_NEWEST_FIRST = "order by c.created desc, c.id desc";
+
+    long countByItem_Id(Long itemId);
+
+    @Query(SELECT_DTO +
+            "where c.item.id = ?1 " +
+            ORDER_NEWEST_FIRST)
+    List<CommentDto> findNewestByItemId(Long itemId, Pageable pageable);
+
+    @Query(SELECT_DTO +
+            "where c.item.id = ?1 " +
+            "and (c.created < ?2 or (c.created = ?2 and c.id < ?3)) " +
+            ORDER_NEWEST_FIRST)
+    List<CommentDto> findByItemIdBefore(Long itemId, LocalDateTime created, Long id, Pageable pageable);
+}
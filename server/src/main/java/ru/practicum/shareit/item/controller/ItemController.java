@@ -1,17 +1,39 @@
 package ru.practicum.shareit.item.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.trending.TrendingItems;
+import ru.practicum.shareit.item.trending.TrendingPeriod;
+import ru.practicum.shareit.lookup.LookupResultDto;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,10 +42,14 @@ import java.util.List;
 @Validated
 public class ItemController {
     private final ItemService itemService;
+    private final ItemImportService itemImportService;
+    private final TrendingItems trendingItems;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ItemImportService itemImportService, TrendingItems trendingItems) {
         this.itemService = itemService;
+        this.itemImportService = itemImportService;
+        this.trendingItems = trendingItems;
     }
 
     @PostMapping
@@ -33,6 +59,21 @@ public class ItemController {
         return itemService.create(userId, itemCreateDto);
     }
 
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ImportResultDto importItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return itemImportService.importItems(userId, ImportFormat.of(contentType), body);
+    }
+
+    @PatchMapping("/availability")
+    public ItemAvailabilityResultDto updateAvailability(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestBody @Valid ItemAvailabilityDto itemAvailabilityDto) {
+        return itemService.updateAvailability(userId, itemAvailabilityDto);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto update(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
@@ -51,27 +92,108 @@ public class ItemController {
     @GetMapping("/{itemId}")
     public ItemDto get(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
-            @PathVariable("itemId") @Positive long itemId) {
-        return itemService.getById(itemId, userId);
+            @PathVariable("itemId") @Positive long itemId,
+            WebRequest request) {
+        ItemDto itemDto = itemService.getById(itemId, userId);
+        trendingItems.recordView(itemId);
+        if (request.checkNotModified(EntityTags.of(fingerprint(itemDto), comments(itemDto.getComments())))) {
+            return null;
+        }
+        return itemDto;
     }
 
     @GetMapping
     public List<ItemDto> getUserItems(
             @RequestHeader("X-Sharer-User-Id") @Positive long userId,
             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return itemService.getUserItems(userId, from, size);
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+            WebRequest request) {
+        List<ItemDto> items = itemService.getUserItems(userId, from, size);
+        if (request.checkNotModified(EntityTags.ofAll(items, ItemController::fingerprint))) {
+            return null;
+        }
+        return items;
+    }
+
+    @GetMapping(params = "ids")
+    public LookupResultDto<ItemDto> getByIds(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @RequestParam(name = "ids") List<Long> ids) {
+        return itemService.getByIds(userId, ids);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUserItems(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(itemService.exportUserItems(userId));
     }
 
     @GetMapping("/search")
     public List<ItemDto> keywordSearch(
             @RequestParam(name = "text", defaultValue = "") String keyword,
             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        if (keyword.isEmpty()) {
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(name = "near", required = false) String near,
+            @RequestParam(name = "radius", defaultValue = "10") @Positive @DecimalMax("1000") Double radius,
+            @RequestParam(name = "sort", defaultValue = "id") String sort,
+            WebRequest request) {
+        ItemSort itemSort = ItemSort.from(sort).orElseThrow(() ->
+                new ValidationException("Unknown sort: " + sort));
+        List<ItemDto> items;
+        if (near != null) {
+            items = itemService.searchNearby(keyword, itemSort, GeoPoint.parse(near), radius, from, size);
+        } else if (keyword.isEmpty()) {
             return Collections.emptyList();
+        } else if (itemSort == ItemSort.POPULAR) {
+            items = itemService.popularSearch(keyword, from, size);
+        } else {
+            items = itemService.keywordSearch(keyword, from, size);
+        }
+        if (request.checkNotModified(EntityTags.ofAll(items, ItemController::fingerprint))) {
+            return null;
+        }
+        return items;
+    }
+
+    @GetMapping(value = "/search", params = "facets=true")
+    public ItemSearchResultDto keywordSearchWithFacets(
+            @RequestParam(name = "text", defaultValue = "") String keyword,
+            @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size,
+            @RequestParam(name = "near", required = false) String near,
+            @RequestParam(name = "radius", defaultValue = "10") @Positive @DecimalMax("1000") Double radius,
+            @RequestParam(name = "sort", defaultValue = "id") String sort) {
+        ItemSort itemSort = ItemSort.from(sort).orElseThrow(() ->
+                new ValidationException("Unknown sort: " + sort));
+        if (near == null && keyword.isEmpty()) {
+            return new ItemSearchResultDto(Collections.emptyList(),
+                    new ItemFacetsDto(0, 0, 0, 0, Collections.emptyList()));
         }
-        return itemService.keywordSearch(keyword, from, size);
+        return itemService.searchWithFacets(keyword, itemSort, near != null ? GeoPoint.parse(near) : null, radius,
+                from, size);
+    }
+
+    @GetMapping("/trending")
+    public List<ItemDto> getTrending(
+            @RequestParam(name = "period", defaultValue = "HOUR") TrendingPeriod period,
+            @RequestParam(name = "size", defaultValue = "10") @Positive @Max(TrendingItems.CAPACITY) Integer size) {
+        return itemService.getTrending(period, size);
+    }
+
+    @GetMapping("/{itemId}/similar")
+    public List<ItemDto> getSimilar(@PathVariable("itemId") @Positive long itemId) {
+        return itemService.getSimilar(itemId);
+    }
+
+    @GetMapping("/{itemId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(
+            @RequestHeader("X-Sharer-User-Id") @Positive long userId,
+            @PathVariable("itemId") @Positive long itemId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") @Positive @Max(100) Integer size) {
+        return itemService.getComments(itemId, userId, cursor, size).toResponseEntity();
     }
 
     @PostMapping("/{itemId}/comment")
@@ -81,4 +203,17 @@ public class ItemController {
             @PathVariable("itemId") @Positive long itemId) {
         return itemService.createComment(itemId, userId, commentCreateDto);
     }
+
+    private static String fingerprint(ItemDto itemDto) {
+        return itemDto.getId() + ":" + itemDto.getVersion()
+                + ":" + (itemDto.getLastBooking() != null ? itemDto.getLastBooking().getId() : null)
+                + ":" + (itemDto.getNextBooking() != null ? itemDto.getNextBooking().getId() : null);
+    }
+
+    private static String comments(List<CommentDto> comments) {
+        if (comments == null) {
+            return null;
+        }
+        return EntityTags.ofAll(comments, c -> c.getId() + ":" + c.getAuthorName());
+    }
 }
\ No newline at end of file
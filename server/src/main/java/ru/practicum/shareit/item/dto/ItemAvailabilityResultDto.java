@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ItemAvailabilityResultDto {
+    private final int updated;
+}
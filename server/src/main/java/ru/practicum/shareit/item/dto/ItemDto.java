@@ -1,11 +1,13 @@
 package ru.practicum.shareit.item.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 
-import java.util.Set;
+import java.util.List;
 
 @Data
 @Builder
@@ -16,7 +18,14 @@ public class ItemDto {
     private Boolean available;
     private Long ownerId;
     private Long requestId;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double latitude;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double longitude;
     private BookingItemDto lastBooking;
     private BookingItemDto nextBooking;
-    private Set<CommentDto> comments;
+    private Long commentsCount;
+    private List<CommentDto> comments;
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ItemFacetsDto {
+    private final long total;
+    private final long available;
+    private final long unavailable;
+    private final long answersRequest;
+    private final List<OwnerFacetDto> owners;
+}
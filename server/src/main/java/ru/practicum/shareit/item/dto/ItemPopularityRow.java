@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+
+@Getter
+public class ItemPopularityRow {
+    private final Long id;
+    private final long bookings;
+
+    public ItemPopularityRow(Long id, Long bookings) {
+        this.id = id;
+        this.bookings = bookings != null ? bookings : 0;
+    }
+}
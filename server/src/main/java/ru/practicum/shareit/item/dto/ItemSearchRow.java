@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+
+@Getter
+public class ItemSearchRow {
+    private final Long id;
+    private final Boolean available;
+    private final Long ownerId;
+    private final Long requestId;
+    private final long bookings;
+    private final Double latitude;
+    private final Double longitude;
+
+    public ItemSearchRow(Long id, Boolean available, Long ownerId, Long requestId, Long bookings,
+                         Double latitude, Double longitude) {
+        this.id = id;
+        this.available = available;
+        this.ownerId = ownerId;
+        this.requestId = requestId;
+        this.bookings = bookings != null ? bookings : 0;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+}
@@ -3,9 +3,11 @@ package ru.practicum.shareit.item.mapper;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.geo.GeoHash;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -18,14 +20,20 @@ public class ItemMapper {
     }
 
     public Item toItem(ItemCreateDto itemCreateDto, User owner) {
-        return new Item(
+        Item item = new Item(
                 itemCreateDto.getName(),
                 itemCreateDto.getDescription(),
                 itemCreateDto.getAvailable(),
                 owner,
-                itemCreateDto.getRequestId() != null ? itemRequestRepository
-                        .findById(itemCreateDto.getRequestId()).orElse(null) : null
+                itemCreateDto.getRequestId() != null && itemRequestRepository.existsById(itemCreateDto.getRequestId())
+                        ? itemRequestRepository.getReferenceById(itemCreateDto.getRequestId()) : null
         );
+        if (itemCreateDto.getLatitude() != null && itemCreateDto.getLongitude() != null) {
+            item.setLatitude(itemCreateDto.getLatitude());
+            item.setLongitude(itemCreateDto.getLongitude());
+            item.setGeohash(GeoHash.encode(itemCreateDto.getLatitude(), itemCreateDto.getLongitude()));
+        }
+        return item;
     }
 
     public ItemDto toItemDto(Item item) {
@@ -36,9 +44,40 @@ public class ItemMapper {
                 .available(item.getAvailable())
                 .ownerId(item.getOwner().getId())
                 .requestId(item.getRequest() != null ? item.getRequest().getId() : null)
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .version(item.getVersion())
                 .build();
     }
 
+    public ItemDto toItemDto(ItemSnapshot item) {
+        return ItemDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .ownerId(item.getOwnerId())
+                .requestId(item.getRequestId())
+                .latitude(item.getLatitude())
+                .longitude(item.getLongitude())
+                .version(item.getVersion())
+                .build();
+    }
+
+    public ItemSnapshot toItemSnapshot(Item item) {
+        return new ItemSnapshot(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getOwner().getId(),
+                item.getRequest() != null ? item.getRequest().getId() : null,
+                item.getVersion(),
+                item.getLatitude(),
+                item.getLongitude()
+        );
+    }
+
     public BookingItemDto toBookingItemDto(Booking booking) {
         return BookingItemDto.builder()
                 .id(booking.getId())
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Where;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -9,6 +11,7 @@ import java.util.Objects;
 
 @Entity
 @Table(name = "items")
+@Where(clause = "deleted = false")
 @Getter
 @Setter
 @Builder
@@ -36,6 +39,25 @@ public class Item {
     @JoinColumn(name = "request_id")
     private ItemRequest request;
 
+    private Double latitude;
+
+    private Double longitude;
+
+    @JsonIgnore
+    private String geohash;
+
+    @Version
+    @JsonIgnore
+    private Long version;
+
+    @JsonIgnore
+    private boolean deleted;
+
+    public Item(Long id, String name, String description, Boolean available, User owner, ItemRequest request) {
+        this(name, description, available, owner, request);
+        this.id = id;
+    }
+
     public Item(String name, String description, Boolean available, User owner, ItemRequest request) {
         this.name = name;
         this.description = description;
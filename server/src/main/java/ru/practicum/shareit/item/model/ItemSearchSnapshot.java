@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+
+import java.util.List;
+
+@Value
+public class ItemSearchSnapshot {
+    List<Long> ids;
+    ItemFacetsDto facets;
+}
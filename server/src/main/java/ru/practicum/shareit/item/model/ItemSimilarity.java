@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "item_similarities")
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSimilarity {
+    @EmbeddedId
+    private ItemSimilarityId id;
+
+    @Column(nullable = false)
+    private Integer score;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+@Embeddable
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSimilarityId implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Column(name = "similar_item_id")
+    private Long similarItemId;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+
+import java.util.Objects;
+
+@Value
+public class ItemSnapshot {
+    Long id;
+    String name;
+    String description;
+    Boolean available;
+    Long ownerId;
+    Long requestId;
+    Long version;
+    Double latitude;
+    Double longitude;
+
+    public ItemSnapshot update(String name, String description, Boolean available) {
+        return new ItemSnapshot(id,
+                name != null ? name : this.name,
+                description != null ? description : this.description,
+                available != null ? available : this.available,
+                ownerId,
+                requestId,
+                version + 1,
+                latitude,
+                longitude);
+    }
+
+    public boolean hasSameContent(ItemSnapshot other) {
+        return Objects.equals(name, other.name)
+                && Objects.equals(description, other.description)
+                && Objects.equals(available, other.available);
+    }
+}
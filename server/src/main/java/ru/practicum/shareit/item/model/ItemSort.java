@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.model;
+
+import java.util.Optional;
+
+public enum ItemSort {
+    ID,
+    POPULAR;
+
+    public static Optional<ItemSort> from(String stringSort) {
+        for (ItemSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(stringSort)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -2,22 +2,85 @@ package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.item.dto.ItemPopularityRow;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    String query = "select i from Item i " +
-            "where (upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%'))) " +
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    String TEXT_MATCH = "(upper(i.name) like upper(concat('%', ?1, '%')) " +
+            "or upper(i.description) like upper(concat('%', ?1, '%'))) ";
+    String query = "select i.id from Item i " +
+            "where " + TEXT_MATCH +
             "and i.available = true " +
             "order by i.id ";
 
     @Query(query)
-    List<Item> search(String text, Pageable pageable);
+    List<Long> searchIds(String text, Pageable pageable);
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemPopularityRow(i.id, s.bookings) from Item i " +
+            "left join ItemStats s on s.itemId = i.id " +
+            "where " + TEXT_MATCH +
+            "and i.available = true")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<ItemPopularityRow> streamPopularity(String text);
 
     List<Item> findAllByOwnerId(Long ownerId);
 
+    boolean existsByOwnerId(Long ownerId);
+
     List<Item> findAllByOwnerId(Long userId, Pageable pageable);
-}
\ No newline at end of file
+
+    @Query("select i from Item i join fetch i.owner " +
+            "left join fetch i.request r left join fetch r.owner " +
+            "where i.owner.id = ?1 order by i.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Item> streamAllByOwnerId(Long ownerId);
+
+    @Query("select i from Item i join fetch i.owner " +
+            "left join fetch i.request r left join fetch r.owner " +
+            "where i.id in ?1")
+    List<Item> findAllByIdIn(Collection<Long> ids);
+
+    @Query("select i from Item i join fetch i.owner " +
+            "join fetch i.request r join fetch r.owner " +
+            "where r.id in ?1 order by i.id")
+    List<Item> findAllByRequestIdIn(Collection<Long> requestIds);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Item i set i.deleted = true, i.version = i.version + 1 " +
+            "where i.id = ?1 and i.deleted = false")
+    int softDeleteById(Long itemId);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Item i set i.deleted = true, i.version = i.version + 1 " +
+            "where i.owner.id = ?1 and i.deleted = false")
+    int softDeleteAllByOwnerId(Long ownerId);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Item i set i.available = ?2, i.version = i.version + 1 " +
+            "where i.owner.id = ?1 and i.available <> ?2 and i.deleted = false")
+    int updateAvailabilityByOwnerId(Long ownerId, Boolean available);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Item i set i.available = ?2, i.version = i.version + 1 " +
+            "where i.owner.id = ?1 and i.available <> ?2 and i.deleted = false and i.id in ?3")
+    int updateAvailabilityByOwnerIdAndIdIn(Long ownerId, Boolean available, Collection<Long> itemIds);
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+
+import java.util.stream.Stream;
+
+public interface ItemRepositoryCustom {
+
+    int updateFields(Long itemId, Long version, String name, String description, Boolean available);
+
+    Stream<ItemSearchRow> streamSearchRows(String text, @Nullable GeoPoint center, double radiusKm);
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.geo.GeoHash;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private final EntityManager entityManager;
+
+    public ItemRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(Long itemId, Long version, String name, String description, Boolean available) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Item> update = cb.createCriteriaUpdate(Item.class);
+        Root<Item> item = update.from(Item.class);
+        if (name != null) {
+            update.set(item.<String>get("name"), name);
+        }
+        if (description != null) {
+            update.set(item.<String>get("description"), description);
+        }
+        if (available != null) {
+            update.set(item.<Boolean>get("available"), available);
+        }
+        Path<Long> itemVersion = item.get("version");
+        update.set(itemVersion, cb.sum(itemVersion, 1L));
+        update.where(cb.equal(item.get("id"), itemId),
+                cb.equal(itemVersion, version),
+                cb.isFalse(item.get("deleted")));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated > 0) {
+            entityManager.detach(entityManager.getReference(Item.class, itemId));
+        }
+        return updated;
+    }
+
+    @Override
+    public Stream<ItemSearchRow> streamSearchRows(String text, @Nullable GeoPoint center, double radiusKm) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (!text.isEmpty()) {
+            where.add("(upper(i.name) like :pattern or upper(i.description) like :pattern)");
+            parameters.put("pattern", "%" + text.toUpperCase(Locale.ROOT) + "%");
+        }
+        if (center != null) {
+            double latitudeDelta = radiusKm / GeoPoint.KM_PER_DEGREE;
+            where.add("i.geohash is not null");
+            where.add("i.latitude between :minLatitude and :maxLatitude");
+            parameters.put("minLatitude", center.getLatitude() - latitudeDelta);
+            parameters.put("maxLatitude", center.getLatitude() + latitudeDelta);
+            List<String> cells = new ArrayList<>(GeoHash.coveringCells(center, radiusKm));
+            List<String> cellMatches = new ArrayList<>(cells.size());
+            for (int i = 0; i < cells.size(); i++) {
+                cellMatches.add("i.geohash like :cell" + i);
+                parameters.put("cell" + i, cells.get(i) + "%");
+            }
+            if (!cellMatches.isEmpty()) {
+                where.add("(" + String.join(" or ", cellMatches) + ")");
+            }
+        }
+        String jpql = "select new ru.practicum.shareit.item.dto.ItemSearchRow(i.id, i.available, i.owner.id, " +
+                "i.request.id, s.bookings, i.latitude, i.longitude) " +
+                "from Item i left join ItemStats s on s.itemId = i.id" +
+                (where.isEmpty() ? "" : " where " + String.join(" and ", where));
+        TypedQuery<ItemSearchRow> query = entityManager.createQuery(jpql, ItemSearchRow.class)
+                .setHint(HINT_FETCH_SIZE, Integer.valueOf(NdjsonExporter.FETCH_SIZE))
+                .setHint(HINT_READONLY, true);
+        parameters.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSimilarity;
+import ru.practicum.shareit.item.model.ItemSimilarityId;
+
+import java.util.List;
+
+public interface ItemSimilarityRepository extends JpaRepository<ItemSimilarity, ItemSimilarityId> {
+
+    @Query("select i from ItemSimilarity s join Item i on i.id = s.id.similarItemId " +
+            "where s.id.itemId = ?1 and i.available = true " +
+            "order by s.score desc, i.id")
+    List<Item> findSimilarItems(Long itemId);
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.service;
+
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+
+import java.io.InputStream;
+
+public interface ItemImportService {
+
+    ImportResultDto importItems(Long userId, ImportFormat format, InputStream body);
+}
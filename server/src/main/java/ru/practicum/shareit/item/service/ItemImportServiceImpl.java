@@ -0,0 +1,253 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.geo.GeoHash;
+import ru.practicum.shareit.importing.CsvRecordParser;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportReport;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class ItemImportServiceImpl implements ItemImportService {
+    private static final String INSERT_ITEM = "insert into items " +
+            "(name, description, is_available, owner_id, request_id, latitude, longitude, geohash, version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String AVAILABLE = "available";
+    private static final String REQUEST_ID = "requestid";
+    private static final String LATITUDE = "latitude";
+    private static final String LONGITUDE = "longitude";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader itemReader;
+    private final Validator validator;
+    private final UserService userService;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchCache itemSearchCache;
+    private final RequestFeed requestFeed;
+    private final RequestMatcher requestMatcher;
+    private final int batchSize;
+
+    @Autowired
+    public ItemImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 UserService userService,
+                                 ItemRequestRepository itemRequestRepository,
+                                 ItemSearchCache itemSearchCache,
+                                 RequestFeed requestFeed,
+                                 RequestMatcher requestMatcher,
+                                 @Value("${shareit.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemReader = objectMapper.readerFor(ItemCreateDto.class);
+        this.validator = validator;
+        this.userService = userService;
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemSearchCache = itemSearchCache;
+        this.requestFeed = requestFeed;
+        this.requestMatcher = requestMatcher;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportResultDto importItems(Long userId, ImportFormat format, InputStream body) {
+        userService.checkExists(userId);
+        ImportReport report = new ImportReport();
+        Map<Long, Boolean> knownRequests = new HashMap<>();
+        List<ItemRow> batch = new ArrayList<>(batchSize);
+        Set<Long> answeredRequests = new HashSet<>();
+        long startedAt = System.nanoTime();
+        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Function<String, ItemCreateDto> parser = format == ImportFormat.CSV
+                    ? csvParser(reader.readLine())
+                    : this::parseJson;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long lineNumber = reader.getLineNumber();
+                try {
+                    ItemCreateDto item = parser.apply(line);
+                    validate(item, knownRequests);
+                    batch.add(new ItemRow(lineNumber, item.getRequestId(), new Object[]{item.getName(), item.getDescription(),
+                            item.getAvailable(), userId, item.getRequestId(), item.getLatitude(),
+                            item.getLongitude(), geohash(item)}));
+                } catch (ValidationException e) {
+                    report.addError(lineNumber, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    flush(batch, report, answeredRequests);
+                }
+            }
+            flush(batch, report, answeredRequests);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (report.getImported() > 0) {
+                itemSearchCache.invalidateAll();
+                requestFeed.invalidate();
+            }
+            if (!answeredRequests.isEmpty()) {
+                requestMatcher.closeAll(answeredRequests);
+            }
+        }
+        log.info("User id={} imported {} items in {} ms", userId, report.getImported(),
+                (System.nanoTime() - startedAt) / 1_000_000);
+        return report.toImportResultDto();
+    }
+
+    private void flush(List<ItemRow> batch, ImportReport report, Set<Long> answeredRequests) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_ITEM, batch.stream()
+                    .map(ItemRow::getArgs)
+                    .collect(Collectors.toList())));
+            report.addImported(batch.size());
+            batch.forEach(row -> answer(row, answeredRequests));
+        } catch (DataAccessException e) {
+            log.debug("Item import batch failed, inserting {} rows one by one", batch.size(), e);
+            batch.forEach(row -> insertRow(row, report, answeredRequests));
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void insertRow(ItemRow row, ImportReport report, Set<Long> answeredRequests) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_ITEM, row.getArgs()));
+            report.addImported(1);
+            answer(row, answeredRequests);
+        } catch (DataAccessException e) {
+            log.warn("Item import line {} rejected by the database: {}", row.getLine(),
+                    e.getMostSpecificCause().getMessage());
+            report.addError(row.getLine(), "Rejected by the database");
+        }
+    }
+
+    private static void answer(ItemRow row, Set<Long> answeredRequests) {
+        if (row.getRequestId() != null) {
+            answeredRequests.add(row.getRequestId());
+        }
+    }
+
+    private ItemCreateDto parseJson(String line) {
+        try {
+            return itemReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Function<String, ItemCreateDto> csvParser(String header) {
+        CsvRecordParser csv = new CsvRecordParser(header, NAME, DESCRIPTION, AVAILABLE);
+        return line -> {
+            Map<String, String> record = csv.parse(line);
+            String available = record.get(AVAILABLE);
+            String requestId = record.get(REQUEST_ID);
+            String latitude = record.get(LATITUDE);
+            String longitude = record.get(LONGITUDE);
+            return ItemCreateDto.builder()
+                    .name(record.get(NAME))
+                    .description(record.get(DESCRIPTION))
+                    .available(available != null ? parseBoolean(available) : null)
+                    .requestId(requestId != null ? parseLong(requestId) : null)
+                    .latitude(latitude != null ? parseDouble(latitude, LATITUDE) : null)
+                    .longitude(longitude != null ? parseDouble(longitude, LONGITUDE) : null)
+                    .build();
+        };
+    }
+
+    private void validate(ItemCreateDto item, Map<Long, Boolean> knownRequests) {
+        Set<ConstraintViolation<ItemCreateDto>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        if (item.getRequestId() != null
+                && !knownRequests.computeIfAbsent(item.getRequestId(), itemRequestRepository::existsById)) {
+            throw new ValidationException(String.format("Request not found: id=%d", item.getRequestId()));
+        }
+    }
+
+    private static String geohash(ItemCreateDto item) {
+        if (item.getLatitude() == null || item.getLongitude() == null) {
+            return null;
+        }
+        return GeoHash.encode(item.getLatitude(), item.getLongitude());
+    }
+
+    private static double parseDouble(String value, String column) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException(column + " must be a number");
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value);
+        }
+        throw new ValidationException("available must be true or false");
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("requestId must be a number");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ItemRow {
+        private final long line;
+        private final Long requestId;
+        private final Object[] args;
+    }
+}
@@ -1,10 +1,20 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.geo.GeoPoint;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.trending.TrendingPeriod;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
 
@@ -14,15 +24,35 @@ public interface ItemService {
 
     ItemDto update(Long userId, ItemDto itemDto, Long itemId);
 
+    ItemAvailabilityResultDto updateAvailability(Long userId, ItemAvailabilityDto itemAvailabilityDto);
+
     void deleteItem(Long itemId, Long userId);
 
     Item getById(Long itemId);
 
     ItemDto getById(Long itemId, Long userId);
 
+    LookupResultDto<ItemDto> getByIds(Long userId, List<Long> itemIds);
+
     List<ItemDto> getUserItems(Long userId, Integer from, Integer size);
 
+    StreamingResponseBody exportUserItems(Long userId);
+
     List<ItemDto> keywordSearch(String keyword, Integer from, Integer size);
 
+    List<ItemDto> popularSearch(String keyword, Integer from, Integer size);
+
+    ItemSearchResultDto searchWithFacets(String keyword, ItemSort sort, @Nullable GeoPoint center, double radiusKm,
+                                         Integer from, Integer size);
+
+    List<ItemDto> searchNearby(String keyword, ItemSort sort, GeoPoint center, double radiusKm, Integer from,
+                               Integer size);
+
+    List<ItemDto> getSimilar(Long itemId);
+
+    List<ItemDto> getTrending(TrendingPeriod period, Integer size);
+
+    CursorPage<CommentDto> getComments(Long itemId, Long userId, String cursor, Integer size);
+
     CommentDto createComment(Long itemId, Long userId, CommentCreateDto commentCreateDto);
 }
\ No newline at end of file
@@ -2,44 +2,90 @@ package ru.practicum.shareit.item.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exception.ForeignKeyViolations;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemPopularityRow;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchSnapshot;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.model.ItemSort;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSimilarityRepository;
+import ru.practicum.shareit.item.trending.TrendingItems;
+import ru.practicum.shareit.item.trending.TrendingPeriod;
+import ru.practicum.shareit.lookup.IdLookup;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.PriorityQueue;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class ItemServiceImpl implements ItemService {
+    private static final int COMMENTS_PREVIEW_SIZE = 10;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int FACET_OWNERS_SIZE = 10;
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final ItemMapper itemMapper;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final CommentMapper commentMapper;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
+    private final NdjsonExporter ndjsonExporter;
+    private final ItemSimilarityRepository itemSimilarityRepository;
+    private final TrendingItems trendingItems;
+    private final RequestMatcher requestMatcher;
+    private final RequestFeed requestFeed;
 
     @Autowired
     public ItemServiceImpl(ItemRepository itemRepository,
@@ -47,47 +93,109 @@ public class ItemServiceImpl implements ItemService {
                            ItemMapper itemMapper,
                            CommentRepository commentRepository,
                            BookingRepository bookingRepository,
-                           CommentMapper commentMapper) {
+                           CommentMapper commentMapper,
+                           ItemCache itemCache,
+                           ItemSearchCache itemSearchCache,
+                           NdjsonExporter ndjsonExporter,
+                           ItemSimilarityRepository itemSimilarityRepository,
+                           TrendingItems trendingItems,
+                           RequestMatcher requestMatcher,
+                           RequestFeed requestFeed) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.itemMapper = itemMapper;
         this.commentRepository = commentRepository;
         this.bookingRepository = bookingRepository;
         this.commentMapper = commentMapper;
+        this.itemCache = itemCache;
+        this.itemSearchCache = itemSearchCache;
+        this.ndjsonExporter = ndjsonExporter;
+        this.itemSimilarityRepository = itemSimilarityRepository;
+        this.trendingItems = trendingItems;
+        this.requestMatcher = requestMatcher;
+        this.requestFeed = requestFeed;
     }
 
     @Override
     public ItemDto create(Long userId, ItemCreateDto itemCreateDto) {
-        User user = userService.getById(userId);
-        Item item = itemMapper.toItem(itemCreateDto, user);
+        Item item = itemMapper.toItem(itemCreateDto, userService.getReference(userId));
+        Item savedItem;
+        try {
+            savedItem = itemRepository.save(item);
+        } catch (DataIntegrityViolationException e) {
+            if (ForeignKeyViolations.isForeignKeyViolation(e)) {
+                throw new NotFoundException(String.format("User not found: id=%d", userId));
+            }
+            throw e;
+        }
         log.info("User id={} added new item '{}'", userId, item.getName());
-        return itemMapper.toItemDto(itemRepository.save(item));
+        itemSearchCache.invalidate(itemMapper.toItemSnapshot(savedItem));
+        if (savedItem.getRequest() != null) {
+            requestFeed.invalidate();
+        }
+        ItemDto itemDto = itemMapper.toItemDto(savedItem);
+        requestMatcher.match(itemDto);
+        return itemDto;
     }
 
     @Override
     public ItemDto update(Long userId, ItemDto itemDto, Long itemId) {
         validateUserId(userId);
-        Item item = getById(itemId);
-        checkUserIsItemOwner(userId, item);
-        if (itemDto.getName() != null) {
-            item.setName(itemDto.getName());
+        for (int attempt = 1; ; attempt++) {
+            ItemSnapshot previousState = itemCache.get(itemId);
+            checkUserIsItemOwner(userId, previousState);
+            ItemSnapshot state = previousState.update(itemDto.getName(), itemDto.getDescription(),
+                    itemDto.getAvailable());
+            if (state.hasSameContent(previousState)) {
+                return itemMapper.toItemDto(previousState);
+            }
+            if (itemRepository.updateFields(itemId, previousState.getVersion(), itemDto.getName(),
+                    itemDto.getDescription(), itemDto.getAvailable()) == 1) {
+                log.info("Item updated: id={}", itemId);
+                itemCache.put(state);
+                itemSearchCache.invalidate(previousState, state);
+                return itemMapper.toItemDto(state);
+            }
+            itemCache.invalidate(itemId);
+            if (attempt == MAX_UPDATE_ATTEMPTS) {
+                throw new ObjectOptimisticLockingFailureException(Item.class, itemId);
+            }
         }
-        if (itemDto.getDescription() != null) {
-            item.setDescription(itemDto.getDescription());
+    }
+
+    @Override
+    public ItemAvailabilityResultDto updateAvailability(Long userId, ItemAvailabilityDto itemAvailabilityDto) {
+        validateUserId(userId);
+        List<Long> itemIds = itemAvailabilityDto.getItemIds();
+        if (itemIds != null && itemIds.isEmpty()) {
+            return new ItemAvailabilityResultDto(0);
         }
-        if (itemDto.getAvailable() != null) {
-            item.setAvailable(itemDto.getAvailable());
+        int updated = itemIds == null
+                ? itemRepository.updateAvailabilityByOwnerId(userId, itemAvailabilityDto.getAvailable())
+                : itemRepository.updateAvailabilityByOwnerIdAndIdIn(userId, itemAvailabilityDto.getAvailable(),
+                itemIds);
+        log.info("Availability set to {} for {} items of user id={}", itemAvailabilityDto.getAvailable(),
+                updated, userId);
+        if (updated > 0) {
+            if (itemIds == null) {
+                itemCache.invalidateOwner(userId);
+            } else {
+                itemCache.invalidateAll(itemIds);
+            }
+            itemSearchCache.invalidateAll();
         }
-        log.info("Item updated: id={}", item.getId());
-        return itemMapper.toItemDto(itemRepository.save(item));
+        return new ItemAvailabilityResultDto(updated);
     }
 
     @Override
     public void deleteItem(Long itemId, Long userId) {
         validateUserId(userId);
-        checkUserIsItemOwner(userId, getById(itemId));
+        ItemSnapshot item = itemCache.get(itemId);
+        checkUserIsItemOwner(userId, item);
+        itemRepository.softDeleteById(itemId);
         log.info("Item deleted: id={}", itemId);
-        itemRepository.deleteById(itemId);
+        itemCache.invalidate(itemId);
+        itemSearchCache.invalidate(item);
     }
 
     @Override
@@ -98,20 +206,28 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemDto getById(Long itemId, Long userId) {
-        Item item = getById(itemId);
+        ItemSnapshot item = itemCache.get(itemId);
         validateUserId(userId);
         ItemDto itemDto = itemMapper.toItemDto(item);
-        Set<Comment> comments = commentRepository.findCommentsByItem_Id(itemId);
-        itemDto.setComments(comments
-                .stream()
-                .map(commentMapper::toCommentDto)
-                .collect(Collectors.toSet()));
-        if (Objects.equals(item.getOwner().getId(), userId)) {
+        long commentsCount = commentRepository.countByItem_Id(itemId);
+        itemDto.setCommentsCount(commentsCount);
+        itemDto.setComments(commentsCount == 0 ? Collections.emptyList() : commentRepository
+                .findNewestByItemId(itemId, PageRequest.of(0, COMMENTS_PREVIEW_SIZE)));
+        if (Objects.equals(item.getOwnerId(), userId)) {
             addLastAndNextBookings(itemDto);
         }
         return itemDto;
     }
 
+    @Override
+    public LookupResultDto<ItemDto> getByIds(Long userId, List<Long> itemIds) {
+        validateUserId(userId);
+        return IdLookup.lookup(itemIds, ids -> itemRepository.findAllByIdIn(ids)
+                .stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList()), ItemDto::getId);
+    }
+
     @Override
     public List<ItemDto> getUserItems(Long userId, Integer from, Integer size) {
         validateUserId(userId);
@@ -127,38 +243,138 @@ public class ItemServiceImpl implements ItemService {
         return itemsDto;
     }
 
+    @Override
+    public StreamingResponseBody exportUserItems(Long userId) {
+        validateUserId(userId);
+        log.info("Export of items started for user id={}", userId);
+        return ndjsonExporter.export(() -> itemRepository.streamAllByOwnerId(userId), itemMapper::toItemDto);
+    }
+
     @Override
     public List<ItemDto> keywordSearch(String keyword, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Item> items = itemRepository.search(keyword, pageable);
-        return items
+        List<Long> ids = itemSearchCache.get(keyword, from, size, () -> {
+            Pageable pageable = PageRequest.of(from / size, size);
+            return itemRepository.searchIds(keyword, pageable);
+        });
+        return findAllInOrder(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> popularSearch(String keyword, Integer from, Integer size) {
+        Comparator<ItemPopularityRow> ranking = Comparator.comparingLong(ItemPopularityRow::getBookings)
+                .reversed()
+                .thenComparing(ItemPopularityRow::getId);
+        int limit = (int) Math.min((long) from + size, Integer.MAX_VALUE);
+        PriorityQueue<ItemPopularityRow> top = new PriorityQueue<>(ranking.reversed());
+        try (Stream<ItemPopularityRow> rows = itemRepository.streamPopularity(keyword)) {
+            rows.forEach(row -> {
+                top.offer(row);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            });
+        }
+        List<Long> ids = top.stream()
+                .sorted(ranking)
+                .skip(from)
+                .map(ItemPopularityRow::getId)
+                .collect(Collectors.toList());
+        return findAllInOrder(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ItemSearchResultDto searchWithFacets(String keyword, ItemSort sort, @Nullable GeoPoint center,
+                                                double radiusKm, Integer from, Integer size) {
+        ItemSearchSnapshot snapshot = searchSnapshot(keyword, sort, center, radiusKm);
+        return new ItemSearchResultDto(findPage(snapshot, from, size), snapshot.getFacets());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ItemDto> searchNearby(String keyword, ItemSort sort, GeoPoint center, double radiusKm,
+                                      Integer from, Integer size) {
+        return findPage(searchSnapshot(keyword, sort, center, radiusKm), from, size);
+    }
+
+    private ItemSearchSnapshot searchSnapshot(String keyword, ItemSort sort, @Nullable GeoPoint center,
+                                              double radiusKm) {
+        return itemSearchCache.getSnapshot(keyword, sort, center, radiusKm,
+                () -> collectSearchSnapshot(keyword, sort, center, radiusKm));
+    }
+
+    private List<ItemDto> findPage(ItemSearchSnapshot snapshot, Integer from, Integer size) {
+        return findAllInOrder(snapshot.getIds()
+                .stream()
+                .skip(from)
+                .limit(size)
+                .collect(Collectors.toList()));
+    }
+
+    private List<ItemDto> findAllInOrder(List<Long> ids) {
+        Map<Long, Item> items = itemRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids
                 .stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(itemMapper::toItemDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemDto> getSimilar(Long itemId) {
+        itemCache.get(itemId);
+        return itemSimilarityRepository.findSimilarItems(itemId)
+                .stream()
+                .map(itemMapper::toItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<ItemDto> getTrending(TrendingPeriod period, Integer size) {
+        return findAllInOrder(trendingItems.top(period, size));
+    }
+
+    @Override
+    public CursorPage<CommentDto> getComments(Long itemId, Long userId, String cursor, Integer size) {
+        itemCache.get(itemId);
+        validateUserId(userId);
+        Pageable pageable = PageRequest.of(0, size + 1);
+        List<CommentDto> comments;
+        if (cursor == null) {
+            comments = commentRepository.findNewestByItemId(itemId, pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            comments = commentRepository.findByItemIdBefore(itemId, position.getCreated(), position.getId(),
+                    pageable);
+        }
+        if (comments.size() <= size) {
+            return new CursorPage<>(comments, null);
+        }
+        List<CommentDto> page = comments.subList(0, size);
+        CommentDto last = page.get(size - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getCreated(), last.getId()).encode());
+    }
+
     @Override
     public CommentDto createComment(Long itemId, Long userId, CommentCreateDto commentCreateDto) {
         User user = userService.getById(userId);
-        Item item = getById(itemId);
-        Comment comment = new Comment(commentCreateDto.getText(), item, user, LocalDateTime.now());
-        try {
-            bookingRepository.getBookingsByBookerId(comment.getAuthor().getId())
-                    .stream()
-                    .filter(s -> s.getStart().isBefore(LocalDateTime.now()))
-                    .filter(s -> s.getEnd().isBefore(LocalDateTime.now()))
-                    .sorted(Comparator.comparing(Booking::getStart).reversed())
-                    .filter(booking -> Objects.equals(booking.getItem().getId(), comment.getItem().getId()))
-                    .findFirst()
-                    .orElseThrow(() -> new NotFoundException("Not found booking for this user"));
-        } catch (NotFoundException e) {
+        ItemSnapshot item = itemCache.get(itemId);
+        LocalDateTime now = LocalDateTime.now();
+        if (!bookingRepository.existsByBooker_IdAndItem_IdAndStartBeforeAndEndBefore(userId, item.getId(),
+                now, now)) {
             throw new ValidationException("Comment can be created after using");
         }
+        Comment comment = new Comment(commentCreateDto.getText(), itemRepository.getReferenceById(item.getId()),
+                user, now);
         return commentMapper.toCommentDto(commentRepository.save(comment));
     }
 
-    private void checkUserIsItemOwner(Long userId, Item item) {
-        if (!item.getOwner().getId().equals(userId)) {
+    private void checkUserIsItemOwner(Long userId, ItemSnapshot item) {
+        if (!item.getOwnerId().equals(userId)) {
             throw new NotFoundException(String.format("User id=%d is not the owner item id=%d",
                     userId, item.getId()));
         }
@@ -168,7 +384,58 @@ public class ItemServiceImpl implements ItemService {
     }
 
     private void validateUserId(Long userId) {
-        userService.getById(userId);
+        userService.checkExists(userId);
+    }
+
+    private ItemSearchSnapshot collectSearchSnapshot(String keyword, ItemSort sort, @Nullable GeoPoint center,
+                                                     double radiusKm) {
+        long total = 0;
+        long available = 0;
+        long answersRequest = 0;
+        Map<Long, Long> owners = new HashMap<>();
+        List<ItemSearchRow> hits = new ArrayList<>();
+        Map<Long, Double> distances = new HashMap<>();
+        try (Stream<ItemSearchRow> rows = itemRepository.streamSearchRows(keyword, center, radiusKm)) {
+            Iterator<ItemSearchRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                ItemSearchRow row = iterator.next();
+                if (center != null) {
+                    double distance = center.distanceKm(row.getLatitude(), row.getLongitude());
+                    if (distance > radiusKm) {
+                        continue;
+                    }
+                    distances.put(row.getId(), distance);
+                }
+                total++;
+                if (row.getRequestId() != null) {
+                    answersRequest++;
+                }
+                owners.merge(row.getOwnerId(), 1L, Long::sum);
+                if (Boolean.TRUE.equals(row.getAvailable())) {
+                    available++;
+                    hits.add(row);
+                }
+            }
+        }
+        List<OwnerFacetDto> topOwners = owners.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(FACET_OWNERS_SIZE)
+                .map(owner -> new OwnerFacetDto(owner.getKey(), owner.getValue()))
+                .collect(Collectors.toList());
+        Comparator<ItemSearchRow> order = Comparator.comparing(ItemSearchRow::getId);
+        if (sort == ItemSort.POPULAR) {
+            order = Comparator.comparingLong(ItemSearchRow::getBookings).reversed().thenComparing(order);
+        } else if (center != null) {
+            order = Comparator.comparingDouble((ItemSearchRow row) -> distances.get(row.getId())).thenComparing(order);
+        }
+        List<Long> ids = hits.stream()
+                .sorted(order)
+                .map(ItemSearchRow::getId)
+                .collect(Collectors.toList());
+        return new ItemSearchSnapshot(ids, new ItemFacetsDto(total, available, total - available, answersRequest,
+                topOwners));
     }
 
     private void addLastAndNextBookings(ItemDto itemDto) {
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.item.similar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.collection.LongIntHashMap;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+@Component
+@Slf4j
+public class SimilarItemsJob {
+    public static final int NEIGHBOURS = 10;
+    private static final int MAX_ITEMS_PER_BOOKER = 200;
+    private static final String SELECT_BASKETS = "select distinct b.booker_id, b.item_id from bookings b " +
+            "join items i on i.id = b.item_id " +
+            "where i.deleted = false and b.status <> 'REJECTED' " +
+            "order by b.booker_id";
+    private static final String DELETE_SIMILARITIES = "delete from item_similarities";
+    private static final String INSERT_SIMILARITY = "insert into item_similarities (item_id, similar_item_id, score) " +
+            "values (?, ?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public SimilarItemsJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.similar.fixed-delay:PT1H}",
+            initialDelayString = "${shareit.similar.initial-delay:PT1M}")
+    public void rebuild() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> rows = topNeighbours(countCoBookings());
+                jdbcTemplate.update(DELETE_SIMILARITIES);
+                jdbcTemplate.batchUpdate(INSERT_SIMILARITY, rows);
+                log.info("Similar items rebuilt: {} pairs", rows.size());
+            });
+        } catch (DataAccessException e) {
+            log.warn("Similar items rebuild failed", e);
+        }
+    }
+
+    private Map<Long, LongIntHashMap> countCoBookings() {
+        BasketCollector collector = new BasketCollector();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BASKETS);
+            statement.setFetchSize(Integer.parseInt(NdjsonExporter.FETCH_SIZE));
+            return statement;
+        }, collector);
+        collector.flushBasket();
+        return collector.coBookings;
+    }
+
+    private static List<Object[]> topNeighbours(Map<Long, LongIntHashMap> coBookings) {
+        List<Object[]> rows = new ArrayList<>();
+        coBookings.forEach((itemId, neighbours) -> {
+            PriorityQueue<long[]> top = new PriorityQueue<>(NEIGHBOURS + 1, (a, b) -> a[1] != b[1]
+                    ? Long.compare(a[1], b[1]) : Long.compare(b[0], a[0]));
+            neighbours.forEach((neighbourId, score) -> {
+                top.offer(new long[]{neighbourId, score});
+                if (top.size() > NEIGHBOURS) {
+                    top.poll();
+                }
+            });
+            top.forEach(pair -> rows.add(new Object[]{itemId, pair[0], pair[1]}));
+        });
+        return rows;
+    }
+
+    private static final class BasketCollector implements RowCallbackHandler {
+        private final Map<Long, LongIntHashMap> coBookings = new HashMap<>();
+        private long[] basket = new long[16];
+        private int basketSize;
+        private long bookerId = -1;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long booker = rs.getLong(1);
+            if (booker != bookerId) {
+                flushBasket();
+                bookerId = booker;
+            }
+            if (basketSize < MAX_ITEMS_PER_BOOKER) {
+                if (basketSize == basket.length) {
+                    basket = Arrays.copyOf(basket, basketSize * 2);
+                }
+                basket[basketSize++] = rs.getLong(2);
+            }
+        }
+
+        private void flushBasket() {
+            for (int i = 0; i < basketSize; i++) {
+                for (int j = i + 1; j < basketSize; j++) {
+                    neighbours(basket[i]).addTo(basket[j], 1);
+                    neighbours(basket[j]).addTo(basket[i], 1);
+                }
+            }
+            basketSize = 0;
+        }
+
+        private LongIntHashMap neighbours(long itemId) {
+            return coBookings.computeIfAbsent(itemId, id -> new LongIntHashMap());
+        }
+    }
+}
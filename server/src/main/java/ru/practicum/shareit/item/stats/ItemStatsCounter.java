@@ -0,0 +1,84 @@
+package ru.practicum.shareit.item.stats;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class ItemStatsCounter {
+    private static final String UPDATE_STATS = "update item_stats set bookings = bookings + ? where item_id = ?";
+    private static final String INSERT_STATS = "insert into item_stats (item_id, bookings) " +
+            "select id, ? from items where id = ?";
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public ItemStatsCounter(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public void increment(Long itemId) {
+        add(itemId, 1);
+    }
+
+    public void decrement(Long itemId) {
+        add(itemId, -1);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.stats.flush-delay:PT5S}")
+    @PreDestroy
+    public void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        pending.forEach((itemId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                deltas.put(itemId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(deltas));
+        } catch (DataAccessException e) {
+            log.warn("Item stats flush failed, {} items will be retried", deltas.size(), e);
+            deltas.forEach(this::add);
+            return;
+        }
+        log.debug("Item stats flushed for {} items", deltas.size());
+    }
+
+    private void add(Long itemId, long delta) {
+        pending.computeIfAbsent(itemId, id -> new LongAdder()).add(delta);
+    }
+
+    private void write(Map<Long, Long> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((itemId, delta) -> args.add(new Object[]{delta, itemId}));
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATS, args);
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(args.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATS, missing);
+        }
+    }
+}
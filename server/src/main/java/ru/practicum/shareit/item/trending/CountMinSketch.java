@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item.trending;
+
+public class CountMinSketch {
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    private final double[][] counts;
+    private final int mask;
+
+    public CountMinSketch(int width) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Width must be a power of two: " + width);
+        }
+        this.counts = new double[SEEDS.length][width];
+        this.mask = width - 1;
+    }
+
+    public double add(long key, double weight) {
+        int[] cells = new int[SEEDS.length];
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            cells[row] = cell(key, row);
+            estimate = Math.min(estimate, counts[row][cells[row]]);
+        }
+        double updated = estimate + weight;
+        for (int row = 0; row < SEEDS.length; row++) {
+            if (counts[row][cells[row]] < updated) {
+                counts[row][cells[row]] = updated;
+            }
+        }
+        return updated;
+    }
+
+    public double estimate(long key) {
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            estimate = Math.min(estimate, counts[row][cell(key, row)]);
+        }
+        return estimate;
+    }
+
+    public void scale(double factor) {
+        for (double[] row : counts) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+    }
+
+    private int cell(long key, int row) {
+        long hash = (key + row) * SEEDS[row];
+        return (int) (hash ^ (hash >>> 29)) & mask;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.item.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class TrendTracker {
+    private static final double MAX_EXPONENT = 50;
+    private final CountMinSketch sketch;
+    private final Map<Long, Double> candidates;
+    private final int capacity;
+    private final double meanLifetimeMillis;
+    private long landmarkMillis;
+    private long minCandidate;
+    private double minCount;
+
+    TrendTracker(int width, int capacity, long meanLifetimeMillis, long nowMillis) {
+        this.sketch = new CountMinSketch(width);
+        this.candidates = new HashMap<>(capacity * 2);
+        this.capacity = capacity;
+        this.meanLifetimeMillis = meanLifetimeMillis;
+        this.landmarkMillis = nowMillis;
+    }
+
+    synchronized void record(long itemId, double weight, long nowMillis) {
+        double exponent = (nowMillis - landmarkMillis) / meanLifetimeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(Math.exp(-exponent));
+            landmarkMillis = nowMillis;
+            exponent = 0;
+        }
+        double count = sketch.add(itemId, weight * Math.exp(exponent));
+        if (candidates.containsKey(itemId)) {
+            candidates.put(itemId, count);
+            if (itemId == minCandidate) {
+                findMin();
+            }
+        } else if (candidates.size() < capacity) {
+            candidates.put(itemId, count);
+            if (candidates.size() == capacity) {
+                findMin();
+            }
+        } else if (count > minCount) {
+            candidates.remove(minCandidate);
+            candidates.put(itemId, count);
+            findMin();
+        }
+    }
+
+    synchronized List<Long> top(int size) {
+        return candidates.entrySet()
+                .stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(size)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private void findMin() {
+        minCount = Double.MAX_VALUE;
+        for (Map.Entry<Long, Double> entry : candidates.entrySet()) {
+            if (entry.getValue() < minCount) {
+                minCount = entry.getValue();
+                minCandidate = entry.getKey();
+            }
+        }
+    }
+
+    private void rescale(double factor) {
+        sketch.scale(factor);
+        for (Long itemId : new ArrayList<>(candidates.keySet())) {
+            candidates.put(itemId, candidates.get(itemId) * factor);
+        }
+        minCount *= factor;
+    }
+}
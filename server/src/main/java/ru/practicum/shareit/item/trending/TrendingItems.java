@@ -0,0 +1,49 @@
+package ru.practicum.shareit.item.trending;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class TrendingItems {
+    public static final int CAPACITY = 100;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final double VIEW_WEIGHT = 1;
+    private static final double BOOKING_WEIGHT = 3;
+    private final Map<TrendingPeriod, TrendTracker> trackers = new EnumMap<>(TrendingPeriod.class);
+    private final Clock clock;
+
+    @Autowired
+    public TrendingItems() {
+        this(Clock.systemUTC());
+    }
+
+    public TrendingItems(Clock clock) {
+        this.clock = clock;
+        for (TrendingPeriod period : TrendingPeriod.values()) {
+            trackers.put(period, new TrendTracker(SKETCH_WIDTH, CAPACITY, period.getDuration().toMillis(),
+                    clock.millis()));
+        }
+    }
+
+    public void recordView(long itemId) {
+        record(itemId, VIEW_WEIGHT);
+    }
+
+    public void recordBooking(long itemId) {
+        record(itemId, BOOKING_WEIGHT);
+    }
+
+    public List<Long> top(TrendingPeriod period, int size) {
+        return trackers.get(period).top(size);
+    }
+
+    private void record(long itemId, double weight) {
+        long now = clock.millis();
+        trackers.values().forEach(tracker -> tracker.record(itemId, weight, now));
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.trending;
+
+import java.time.Duration;
+import java.util.Optional;
+
+public enum TrendingPeriod {
+    HOUR(Duration.ofHours(1)),
+    DAY(Duration.ofDays(1));
+
+    private final Duration duration;
+
+    TrendingPeriod(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public static Optional<TrendingPeriod> from(String stringPeriod) {
+        for (TrendingPeriod period : values()) {
+            if (period.name().equalsIgnoreCase(stringPeriod)) {
+                return Optional.of(period);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.trending;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrendingPeriodConverter implements Converter<String, TrendingPeriod> {
+
+    @Override
+    public TrendingPeriod convert(String source) {
+        return TrendingPeriod.from(source.trim()).orElseThrow(() ->
+                new IllegalArgumentException("Unknown period: " + source));
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.lookup;
+
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public final class IdLookup {
+    public static final int MAX_IDS = 100;
+
+    private IdLookup() {
+    }
+
+    public static <T> LookupResultDto<T> lookup(List<Long> ids,
+                                                Function<List<Long>, Collection<T>> finder,
+                                                Function<T, Long> idOf) {
+        List<Long> distinctIds = distinct(ids);
+        if (distinctIds.isEmpty()) {
+            return new LookupResultDto<>(List.of(), List.of());
+        }
+        return collect(distinctIds, finder.apply(distinctIds), idOf);
+    }
+
+    private static List<Long> distinct(List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new ValidationException(String.format("Too many ids: %d, max %d", ids.size(), MAX_IDS));
+        }
+        return new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    private static <T> LookupResultDto<T> collect(List<Long> ids, Collection<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        found.forEach(value -> byId.put(idOf.apply(value), value));
+        List<T> ordered = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T value = byId.get(id);
+            if (value != null) {
+                ordered.add(value);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new LookupResultDto<>(ordered, missing);
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.lookup;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class LookupResultDto<T> {
+    List<T> found;
+    List<Long> missing;
+}
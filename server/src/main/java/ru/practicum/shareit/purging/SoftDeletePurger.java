@@ -0,0 +1,145 @@
+package ru.practicum.shareit.purging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
+import ru.practicum.shareit.user.cache.UserTombstones;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+@Component
+@Slf4j
+public class SoftDeletePurger {
+    private static final String DELETED_USERS = "select id from users where deleted = true";
+    private static final String DOOMED_ITEMS = "select id from items where deleted = true " +
+            "or owner_id in (" + DELETED_USERS + ")";
+    private static final String DELETE_COMMENTS = "delete from comments where id in (" +
+            "select id from comments where item_id in (" + DOOMED_ITEMS + ") " +
+            "or author_id in (" + DELETED_USERS + ") limit :limit)";
+    private static final String DELETE_BOOKINGS = "delete from bookings where id in (" +
+            "select id from bookings where item_id in (" + DOOMED_ITEMS + ") " +
+            "or booker_id in (" + DELETED_USERS + ") limit :limit)";
+    private static final String SELECT_ITEMS = "select i.id from items i " +
+            "where i.id in (" + DOOMED_ITEMS + ") " +
+            "and not exists (select 1 from bookings b where b.item_id = i.id) " +
+            "and not exists (select 1 from comments c where c.item_id = i.id) limit :limit";
+    private static final String DELETE_ITEM_STATS = "delete from item_stats where item_id in (:ids)";
+    private static final String DELETE_ITEMS = "delete from items where id in (:ids)";
+    private static final String SELECT_REQUESTS = "select id from requests " +
+            "where owner_id in (" + DELETED_USERS + ") limit :limit";
+    private static final String SELECT_REQUEST_ITEMS = "select id from items where request_id in (:ids)";
+    private static final String DETACH_REQUEST_ITEMS = "update items set request_id = null, version = version + 1 " +
+            "where request_id in (:ids)";
+    private static final String DELETE_REQUESTS = "delete from requests where id in (:ids)";
+    private static final String SELECT_USERS = "select u.id from users u where u.deleted = true " +
+            "and not exists (select 1 from items i where i.owner_id = u.id) " +
+            "and not exists (select 1 from bookings b where b.booker_id = u.id) " +
+            "and not exists (select 1 from comments c where c.author_id = u.id) " +
+            "and not exists (select 1 from requests r where r.owner_id = u.id) limit :limit";
+    private static final String DELETE_USERS = "delete from users where id in (:ids)";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
+    private final UserTombstones userTombstones;
+    private final RequestMatcher requestMatcher;
+    private final RequestFeed requestFeed;
+    private final int batchSize;
+
+    @Autowired
+    public SoftDeletePurger(NamedParameterJdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ItemCache itemCache,
+                            ItemSearchCache itemSearchCache,
+                            UserTombstones userTombstones,
+                            RequestMatcher requestMatcher,
+                            RequestFeed requestFeed,
+                            @Value("${shareit.purge.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemCache = itemCache;
+        this.itemSearchCache = itemSearchCache;
+        this.userTombstones = userTombstones;
+        this.requestMatcher = requestMatcher;
+        this.requestFeed = requestFeed;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.purge.fixed-delay:PT10S}",
+            initialDelayString = "${shareit.purge.initial-delay:PT10S}")
+    public void purge() {
+        int comments = drain(() -> jdbcTemplate.update(DELETE_COMMENTS, limit()));
+        int bookings = drain(() -> jdbcTemplate.update(DELETE_BOOKINGS, limit()));
+        int items = drain(this::purgeItems);
+        int requests = drain(this::purgeRequests);
+        int users = drain(this::purgeUsers);
+        if (items > 0) {
+            itemSearchCache.invalidateAll();
+        }
+        if (items + requests > 0) {
+            requestFeed.invalidate();
+        }
+        if (comments + bookings + items + requests + users > 0) {
+            log.info("Purged soft-deleted rows: comments={}, bookings={}, items={}, requests={}, users={}",
+                    comments, bookings, items, requests, users);
+        }
+    }
+
+    private int purgeItems() {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_ITEMS, limit(), Long.class);
+        if (!ids.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+            jdbcTemplate.update(DELETE_ITEM_STATS, params);
+            jdbcTemplate.update(DELETE_ITEMS, params);
+            ids.forEach(itemCache::invalidate);
+        }
+        return ids.size();
+    }
+
+    private int purgeRequests() {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_REQUESTS, limit(), Long.class);
+        if (!ids.isEmpty()) {
+            MapSqlParameterSource params = new MapSqlParameterSource("ids", ids);
+            List<Long> itemIds = jdbcTemplate.queryForList(SELECT_REQUEST_ITEMS, params, Long.class);
+            jdbcTemplate.update(DETACH_REQUEST_ITEMS, params);
+            jdbcTemplate.update(DELETE_REQUESTS, params);
+            itemIds.forEach(itemCache::invalidate);
+            requestMatcher.removeAll(ids);
+        }
+        return ids.size();
+    }
+
+    private int purgeUsers() {
+        List<Long> ids = jdbcTemplate.queryForList(SELECT_USERS, limit(), Long.class);
+        if (!ids.isEmpty()) {
+            jdbcTemplate.update(DELETE_USERS, new MapSqlParameterSource("ids", ids));
+            userTombstones.removeAll(ids);
+        }
+        return ids.size();
+    }
+
+    private int drain(IntSupplier batch) {
+        int total = 0;
+        int purged;
+        do {
+            Integer result = transactionTemplate.execute(status -> batch.getAsInt());
+            purged = result == null ? 0 : result;
+            total += purged;
+        } while (purged == batchSize);
+        return total;
+    }
+
+    private MapSqlParameterSource limit() {
+        return new MapSqlParameterSource("limit", batchSize);
+    }
+}
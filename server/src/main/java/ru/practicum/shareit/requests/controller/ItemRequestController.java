@@ -1,8 +1,13 @@
 package ru.practicum.shareit.requests.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.etag.EntityTags;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.service.ItemRequestService;
 
@@ -31,22 +36,36 @@ public class ItemRequestController {
 
     @GetMapping
     public List<ItemRequestDto> getByUser(
-            @RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
-        return itemRequestService.getByUser(userId);
+            @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
+            @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
+        return itemRequestService.getByUser(userId, from, size);
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAll(
+    public ResponseEntity<List<ItemRequestDto>> getAll(
             @RequestHeader("X-Sharer-User-Id") @Positive Long userId,
             @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+            @RequestParam(name = "cursor", required = false) String cursor,
             @RequestParam(name = "size", defaultValue = "10") @Positive Integer size) {
-        return itemRequestService.getAll(userId, from, size);
+        return itemRequestService.getAll(userId, from, cursor, size).toResponseEntity();
+    }
+
+    @GetMapping(value = "/matches", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToMatches(@RequestHeader("X-Sharer-User-Id") @Positive Long userId) {
+        return itemRequestService.subscribeToMatches(userId);
     }
 
     @GetMapping("{requestId}")
     public ItemRequestDto getById(
             @RequestHeader("X-Sharer-User-Id") @Positive Long ownerId,
-            @PathVariable Long requestId) {
-        return itemRequestService.getById(ownerId, requestId);
+            @PathVariable Long requestId,
+            WebRequest request) {
+        ItemRequestDto itemRequestDto = itemRequestService.getById(ownerId, requestId);
+        if (request.checkNotModified(EntityTags.of(itemRequestDto.getId(), itemRequestDto.getVersion(),
+                EntityTags.ofAll(itemRequestDto.getItems(), i -> i.getId() + ":" + i.getVersion())))) {
+            return null;
+        }
+        return itemRequestDto;
     }
 }
\ No newline at end of file
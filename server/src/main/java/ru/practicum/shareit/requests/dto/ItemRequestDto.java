@@ -1,5 +1,6 @@
 package ru.practicum.shareit.requests.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import ru.practicum.shareit.item.dto.ItemDto;
 
@@ -20,4 +21,6 @@ public class ItemRequestDto {
     private LocalDateTime created;
     private Long ownerId;
     private List<ItemDto> items = new ArrayList<>();
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.requests.dto;
+
+import lombok.*;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RequestMatchDto {
+    private Long requestId;
+    private ItemDto item;
+}
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.requests.feed;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class RequestFeed {
+    private final int capacity;
+    private final long ttlNanos;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public RequestFeed(@Value("${shareit.requests.feed.capacity:1000}") int capacity,
+                       @Value("${shareit.requests.feed.ttl:PT5S}") Duration ttl) {
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Snapshot get(Supplier<List<ItemRequestDto>> loader) {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired()) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current != null && !current.isExpired()) {
+                return current;
+            }
+            long stamp = generation.get();
+            List<ItemRequestDto> requests = List.copyOf(loader.get());
+            current = new Snapshot(requests, requests.size() < capacity, System.nanoTime() + ttlNanos);
+            if (stamp == generation.get()) {
+                snapshot = current;
+            }
+            log.debug("Request feed rebuilt with {} requests", requests.size());
+            return current;
+        }
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    public static final class Snapshot {
+        private final List<ItemRequestDto> requests;
+        private final boolean complete;
+        private final long expiresAt;
+
+        private Snapshot(List<ItemRequestDto> requests, boolean complete, long expiresAt) {
+            this.requests = requests;
+            this.complete = complete;
+            this.expiresAt = expiresAt;
+        }
+
+        public Optional<List<ItemRequestDto>> slice(Long excludedOwnerId, KeysetCursor after, int skip, int limit) {
+            List<ItemRequestDto> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for (int i = after == null ? 0 : firstOlderThan(after); i < requests.size(); i++) {
+                ItemRequestDto request = requests.get(i);
+                if (request.getOwnerId().equals(excludedOwnerId)) {
+                    continue;
+                }
+                if (skipped < skip) {
+                    skipped++;
+                    continue;
+                }
+                page.add(request);
+                if (page.size() == limit) {
+                    return Optional.of(page);
+                }
+            }
+            return complete ? Optional.of(page) : Optional.empty();
+        }
+
+        private int firstOlderThan(KeysetCursor cursor) {
+            int low = 0;
+            int high = requests.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isOlder(requests.get(mid), cursor)) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            return low;
+        }
+
+        private static boolean isOlder(ItemRequestDto request, KeysetCursor cursor) {
+            int byCreated = request.getCreated().compareTo(cursor.getCreated());
+            return byCreated < 0 || byCreated == 0 && request.getId() < cursor.getId();
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - expiresAt >= 0;
+        }
+    }
+}
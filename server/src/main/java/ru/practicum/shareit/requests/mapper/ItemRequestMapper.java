@@ -3,10 +3,12 @@ package ru.practicum.shareit.requests.mapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,16 +27,16 @@ public class ItemRequestMapper {
         );
     }
 
-    public ItemRequestDto toItemRequestDto(ItemRequest itemRequest) {
+    public ItemRequestDto toItemRequestDto(ItemRequest itemRequest, List<Item> items) {
         return new ItemRequestDto(
                 itemRequest.getId(),
                 itemRequest.getDescription(),
                 itemRequest.getCreated(),
                 itemRequest.getOwner().getId(),
-                itemRequest.getItems()
-                        .stream()
+                items.stream()
                         .map(itemMapper::toItemDto)
-                        .collect(Collectors.toList())
+                        .collect(Collectors.toList()),
+                itemRequest.getVersion()
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package ru.practicum.shareit.requests.matching;
+
+import lombok.Value;
+import ru.practicum.shareit.collection.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class RequestIndex {
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TERM_LENGTH = 3;
+    private static final int STEM_LENGTH = 5;
+    private static final Set<String> STOPWORDS = Set.of(
+            "the", "and", "for", "with", "without", "that", "this", "from", "into", "are", "was", "has", "have",
+            "can", "any", "some", "you", "your", "our", "who", "what", "where", "when", "how", "not", "all",
+            "need", "needs", "needed", "want", "wanted", "looking", "look", "search", "searching", "please",
+            "anyone", "someone", "something", "thing", "things", "item", "items", "good", "new", "day", "days",
+            "для", "или", "без", "под", "над", "при", "про", "как", "что", "это", "эта", "этот", "так", "все",
+            "всё", "есть", "кто", "где", "когда", "если", "чтобы", "меня", "мне", "нам", "нас", "вас", "вам",
+            "очень", "можно", "нужен", "нужна", "нужно", "нужны", "ищу", "ищем", "хочу", "хотел", "хотела",
+            "пожалуйста", "вещь", "вещи", "день", "дня", "дней", "новый", "новая", "хороший");
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, StandingQuery> queries = new HashMap<>();
+    private final Map<Long, Long> owners = new HashMap<>();
+
+    public void add(long requestId, long ownerId, String description) {
+        if (owners.containsKey(requestId)) {
+            return;
+        }
+        owners.put(requestId, ownerId);
+        Set<String> terms = terms(description);
+        if (terms.isEmpty()) {
+            return;
+        }
+        queries.put(requestId, new StandingQuery(ownerId, terms));
+        terms.forEach(term -> postings.computeIfAbsent(term, t -> new HashSet<>()).add(requestId));
+    }
+
+    public void remove(long requestId) {
+        owners.remove(requestId);
+        close(requestId);
+    }
+
+    public void close(long requestId) {
+        StandingQuery query = queries.remove(requestId);
+        if (query == null) {
+            return;
+        }
+        for (String term : query.getTerms()) {
+            Set<Long> requestIds = postings.get(term);
+            requestIds.remove(requestId);
+            if (requestIds.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public List<Match> match(String... texts) {
+        Set<String> terms = new HashSet<>();
+        for (String text : texts) {
+            terms.addAll(terms(text));
+        }
+        LongIntHashMap hits = new LongIntHashMap();
+        for (String term : terms) {
+            Set<Long> requestIds = postings.get(term);
+            if (requestIds != null) {
+                requestIds.forEach(requestId -> hits.addTo(requestId, 1));
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        hits.forEach((requestId, count) -> {
+            StandingQuery query = queries.get(requestId);
+            if (count * 2 >= query.getTerms().size()) {
+                matches.add(new Match(requestId, query.getOwnerId()));
+            }
+        });
+        return matches;
+    }
+
+    public Long ownerOf(long requestId) {
+        return owners.get(requestId);
+    }
+
+    public int size() {
+        return queries.size();
+    }
+
+    static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= MIN_TERM_LENGTH && !STOPWORDS.contains(word)) {
+                terms.add(word.length() > STEM_LENGTH ? word.substring(0, STEM_LENGTH) : word);
+            }
+        }
+        return terms;
+    }
+
+    @Value
+    public static class Match {
+        long requestId;
+        long ownerId;
+    }
+
+    @Value
+    private static class StandingQuery {
+        long ownerId;
+        Set<String> terms;
+    }
+}
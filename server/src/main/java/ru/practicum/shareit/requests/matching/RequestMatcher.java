@@ -0,0 +1,100 @@
+package ru.practicum.shareit.requests.matching;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.requests.dto.RequestMatchDto;
+import ru.practicum.shareit.user.cache.UserTombstones;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Slf4j
+public class RequestMatcher {
+    private static final String SELECT_REQUESTS = "select r.id, r.owner_id, r.description, " +
+            "exists (select 1 from items i where i.request_id = r.id) from requests r " +
+            "join users u on u.id = r.owner_id where u.deleted = false";
+    private final RequestIndex index = new RequestIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RequestMatchNotifier notifier;
+    private final UserTombstones userTombstones;
+
+    @Autowired
+    public RequestMatcher(JdbcTemplate jdbcTemplate, RequestMatchNotifier notifier, UserTombstones userTombstones) {
+        this.notifier = notifier;
+        this.userTombstones = userTombstones;
+        jdbcTemplate.query(SELECT_REQUESTS, rs -> {
+            index.add(rs.getLong(1), rs.getLong(2), rs.getString(3));
+            if (rs.getBoolean(4)) {
+                index.close(rs.getLong(1));
+            }
+        });
+        log.info("Request matcher loaded {} open requests", index.size());
+    }
+
+    public void add(Long requestId, Long ownerId, String description) {
+        lock.writeLock().lock();
+        try {
+            index.add(requestId, ownerId, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeAll(Collection<Long> requestIds) {
+        lock.writeLock().lock();
+        try {
+            requestIds.forEach(index::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void closeAll(Collection<Long> requestIds) {
+        lock.writeLock().lock();
+        try {
+            requestIds.forEach(index::close);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void match(ItemDto item) {
+        if (item.getRequestId() != null) {
+            closeAll(List.of(item.getRequestId()));
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        List<RequestIndex.Match> matches;
+        Long answeredOwnerId;
+        lock.readLock().lock();
+        try {
+            matches = index.match(item.getName(), item.getDescription());
+            answeredOwnerId = item.getRequestId() != null ? index.ownerOf(item.getRequestId()) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (answeredOwnerId != null) {
+            deliver(answeredOwnerId, item.getRequestId(), item);
+        }
+        for (RequestIndex.Match match : matches) {
+            if (!Objects.equals(match.getRequestId(), item.getRequestId())) {
+                deliver(match.getOwnerId(), match.getRequestId(), item);
+            }
+        }
+        log.debug("Item id={} matched {} open requests", item.getId(), matches.size());
+    }
+
+    private void deliver(Long ownerId, Long requestId, ItemDto item) {
+        if (!ownerId.equals(item.getOwnerId()) && !userTombstones.contains(ownerId)) {
+            notifier.notify(ownerId, new RequestMatchDto(requestId, item));
+        }
+    }
+}
@@ -36,6 +36,9 @@ public class ItemRequest {
     @JsonIgnore
     private List<Item> items = new ArrayList<>();
 
+    @Version
+    private Long version;
+
     public ItemRequest(String description, User owner) {
         this.description = description;
         this.owner = owner;
@@ -1,15 +1,28 @@
 package ru.practicum.shareit.requests.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.requests.model.ItemRequest;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    Page<ItemRequest> findAllByOwnerIdIsNot(Long ownerId, Pageable pageable);
+    @EntityGraph(attributePaths = "owner")
+    List<ItemRequest> findAllBy(Pageable pageable);
 
-    List<ItemRequest> findAllByOwnerId(Long ownerId);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "owner")
+    List<ItemRequest> findAllByOwnerIdIsNot(Long ownerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "owner")
+    @Query("select r from ItemRequest r " +
+            "where r.owner.id <> ?1 " +
+            "and (r.created < ?2 or (r.created = ?2 and r.id < ?3))")
+    List<ItemRequest> findAllByOwnerIdIsNotBefore(Long ownerId, LocalDateTime created, Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "owner")
+    List<ItemRequest> findAllByOwnerId(Long ownerId, Pageable pageable);
+}
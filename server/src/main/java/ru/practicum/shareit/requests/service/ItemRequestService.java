@@ -1,5 +1,7 @@
 package ru.practicum.shareit.requests.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 
 import java.util.List;
@@ -8,9 +10,11 @@ public interface ItemRequestService {
 
     ItemRequestDto create(Long ownerId, ItemRequestDto dto);
 
-    List<ItemRequestDto> getByUser(Long userId);
+    List<ItemRequestDto> getByUser(Long userId, Integer from, Integer size);
 
-    List<ItemRequestDto> getAll(Long userId, Integer from, Integer size);
+    CursorPage<ItemRequestDto> getAll(Long userId, Integer from, String cursor, Integer size);
 
     ItemRequestDto getById(Long ownerId, Long requestId);
+
+    SseEmitter subscribeToMatches(Long userId);
 }
\ No newline at end of file
@@ -2,66 +2,102 @@ package ru.practicum.shareit.requests.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.exception.ForeignKeyViolations;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.OffsetPageRequest;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.feed.RequestFeed;
 import ru.practicum.shareit.requests.mapper.ItemRequestMapper;
+import ru.practicum.shareit.requests.matching.RequestMatchNotifier;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort NEWEST_FIRST = Sort.by("created").descending().and(Sort.by("id").descending());
     private final ItemRequestRepository requestRepository;
     private final UserService userService;
     private final ItemRequestMapper requestMapper;
+    private final ItemRepository itemRepository;
+    private final RequestMatcher requestMatcher;
+    private final RequestMatchNotifier requestMatchNotifier;
+    private final RequestFeed requestFeed;
 
     @Autowired
     public ItemRequestServiceImpl(ItemRequestRepository itemRequestRepository,
                                   UserService userService,
-                                  ItemRequestMapper itemRequestMapper) {
+                                  ItemRequestMapper itemRequestMapper,
+                                  ItemRepository itemRepository,
+                                  RequestMatcher requestMatcher,
+                                  RequestMatchNotifier requestMatchNotifier,
+                                  RequestFeed requestFeed) {
         this.requestRepository = itemRequestRepository;
         this.userService = userService;
         this.requestMapper = itemRequestMapper;
+        this.itemRepository = itemRepository;
+        this.requestMatcher = requestMatcher;
+        this.requestMatchNotifier = requestMatchNotifier;
+        this.requestFeed = requestFeed;
     }
 
     @Override
     public ItemRequestDto create(Long ownerId, ItemRequestDto dto) {
-        User user = userService.getById(ownerId);
-        ItemRequest request = requestMapper.toItemRequest(dto, user);
+        ItemRequest request = requestMapper.toItemRequest(dto, userService.getReference(ownerId));
+        try {
+            request = requestRepository.save(request);
+        } catch (DataIntegrityViolationException e) {
+            if (ForeignKeyViolations.isForeignKeyViolation(e)) {
+                throw new NotFoundException(String.format("User not found: id=%d", ownerId));
+            }
+            throw e;
+        }
         log.info("User id={} added new itemRequest", ownerId);
-        return requestMapper.toItemRequestDto(requestRepository.save(request));
+        requestMatcher.add(request.getId(), ownerId, request.getDescription());
+        requestFeed.invalidate();
+        return requestMapper.toItemRequestDto(request, Collections.emptyList());
     }
 
     @Override
-    public List<ItemRequestDto> getByUser(Long ownerId) {
+    public List<ItemRequestDto> getByUser(Long ownerId, Integer from, Integer size) {
         validateUserId(ownerId);
-        log.info("List user requests has been compiled: userId={}", ownerId);
-        return requestRepository.findAllByOwnerId(ownerId)
-                .stream()
-                .sorted(Comparator.comparing(ItemRequest::getCreated).reversed())
-                .map(requestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        PageRequest pageRequest = PageRequest.of(from / size, size, NEWEST_FIRST);
+        log.info("List user requests has been compiled: userId={}, from={}, size={}", ownerId, from, size);
+        return toItemRequestDtos(requestRepository.findAllByOwnerId(ownerId, pageRequest));
     }
 
     @Override
-    public List<ItemRequestDto> getAll(Long ownerId, Integer from, Integer size) {
+    public CursorPage<ItemRequestDto> getAll(Long ownerId, Integer from, String cursor, Integer size) {
         validateUserId(ownerId);
-        PageRequest pageRequest = PageRequest.of(from / size, size, Sort.by("created").descending());
-        log.info("List of requests from other users has been compiled, ownerId={}, from={}, size={}",
-                ownerId, from, size);
-        return requestRepository.findAllByOwnerIdIsNot(ownerId, pageRequest).getContent()
-                .stream()
-                .map(requestMapper::toItemRequestDto)
-                .collect(Collectors.toList());
+        KeysetCursor after = cursor != null ? KeysetCursor.decode(cursor) : null;
+        int skip = after != null ? 0 : from / size * size;
+        List<ItemRequestDto> requests = requestFeed.get(this::loadFeed)
+                .slice(ownerId, after, skip, size + 1)
+                .orElseGet(() -> loadPage(ownerId, after, skip, size + 1));
+        log.info("List of requests from other users has been compiled, ownerId={}, from={}, cursor={}, size={}",
+                ownerId, from, cursor, size);
+        if (requests.size() <= size) {
+            return new CursorPage<>(requests, null);
+        }
+        List<ItemRequestDto> page = requests.subList(0, size);
+        ItemRequestDto last = page.get(size - 1);
+        return new CursorPage<>(page, new KeysetCursor(last.getCreated(), last.getId()).encode());
     }
 
     @Override
@@ -71,10 +107,45 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .findById(requestId)
                 .orElseThrow(() -> new NotFoundException(String.format("Request not found: id=%d", requestId)));
         log.info("Request has been compiled: requestId={}", requestId);
-        return requestMapper.toItemRequestDto(request);
+        return toItemRequestDtos(List.of(request)).get(0);
+    }
+
+    @Override
+    public SseEmitter subscribeToMatches(Long userId) {
+        validateUserId(userId);
+        return requestMatchNotifier.subscribe(userId);
+    }
+
+    private List<ItemRequestDto> loadFeed() {
+        return toItemRequestDtos(requestRepository.findAllBy(PageRequest.of(0, requestFeed.getCapacity(),
+                NEWEST_FIRST)));
+    }
+
+    private List<ItemRequestDto> loadPage(Long ownerId, KeysetCursor after, int skip, int limit) {
+        if (after != null) {
+            return toItemRequestDtos(requestRepository.findAllByOwnerIdIsNotBefore(ownerId, after.getCreated(),
+                    after.getId(), PageRequest.of(0, limit, NEWEST_FIRST)));
+        }
+        return toItemRequestDtos(requestRepository.findAllByOwnerIdIsNot(ownerId,
+                OffsetPageRequest.of(skip, limit, NEWEST_FIRST)));
+    }
+
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdIn(requests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> requestMapper.toItemRequestDto(request,
+                        items.getOrDefault(request.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 
     private void validateUserId(Long userId) {
-        userService.getById(userId);
+        userService.checkExists(userId);
     }
 }
\ No newline at end of file
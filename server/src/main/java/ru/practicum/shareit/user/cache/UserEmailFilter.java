@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.collection.BloomFilter;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Slf4j
+public class UserEmailFilter {
+    private static final String COUNT_ACTIVE = "select count(*) from users where deleted = false";
+    private static final String SELECT_ACTIVE = "select email from users where deleted = false";
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private final BloomFilter emails;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public UserEmailFilter(JdbcTemplate jdbcTemplate,
+                           @Value("${shareit.users.email-filter.capacity:100000}") int capacity) {
+        Integer count = jdbcTemplate.queryForObject(COUNT_ACTIVE, Integer.class);
+        emails = new BloomFilter(Math.max(capacity, count == null ? 0 : count * 2), FALSE_POSITIVE_RATE);
+        jdbcTemplate.query(SELECT_ACTIVE, rs -> {
+            emails.put(rs.getString(1));
+        });
+        log.info("User email filter loaded with {} emails", count);
+    }
+
+    public boolean mightExist(String email) {
+        lock.readLock().lock();
+        try {
+            return emails.mightContain(email);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(String email) {
+        lock.writeLock().lock();
+        try {
+            emails.put(email);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<String> added) {
+        lock.writeLock().lock();
+        try {
+            added.forEach(emails::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.user.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.collection.LongHashSet;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+@Slf4j
+public class UserIdIndex {
+    private static final String COUNT_ACTIVE = "select count(*) from users where deleted = false";
+    private static final String SELECT_ACTIVE = "select id from users where deleted = false";
+    private final LongHashSet ids;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public UserIdIndex(JdbcTemplate jdbcTemplate) {
+        Integer expected = jdbcTemplate.queryForObject(COUNT_ACTIVE, Integer.class);
+        ids = new LongHashSet(expected == null ? 0 : expected);
+        jdbcTemplate.query(SELECT_ACTIVE, rs -> {
+            ids.add(rs.getLong(1));
+        });
+        log.info("User id index loaded with {} users", ids.size());
+    }
+
+    public boolean contains(Long userId) {
+        lock.readLock().lock();
+        try {
+            return ids.contains(userId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Long userId) {
+        lock.writeLock().lock();
+        try {
+            ids.add(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(Collection<Long> userIds) {
+        lock.writeLock().lock();
+        try {
+            userIds.forEach(ids::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            ids.remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.user.cache;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class UserTombstones {
+    private static final String SELECT_DELETED = "select id from users where deleted = true";
+    private final Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    public UserTombstones(JdbcTemplate jdbcTemplate) {
+        ids.addAll(jdbcTemplate.queryForList(SELECT_DELETED, Long.class));
+    }
+
+    public boolean contains(Long userId) {
+        return ids.contains(userId);
+    }
+
+    public void add(Long userId) {
+        ids.add(userId);
+    }
+
+    public void removeAll(Collection<Long> userIds) {
+        ids.removeAll(userIds);
+    }
+}
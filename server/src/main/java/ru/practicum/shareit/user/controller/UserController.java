@@ -1,15 +1,28 @@
 package ru.practicum.shareit.user.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.etag.EntityTags;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Positive;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -17,10 +30,12 @@ import java.util.List;
 @Validated
 public class UserController {
     private final UserService userService;
+    private final UserImportService userImportService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     @PostMapping
@@ -28,6 +43,12 @@ public class UserController {
         return userService.create(userCreateDto);
     }
 
+    @PostMapping(value = "/import", consumes = {ImportFormat.NDJSON_VALUE, ImportFormat.CSV_VALUE})
+    public ImportResultDto importUsers(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                       InputStream body) {
+        return userImportService.importUsers(ImportFormat.of(contentType), body);
+    }
+
     @PatchMapping("/{id}")
     public UserDto update(@RequestBody UserDto userDto,
                           @PathVariable("id") @Positive long userId) {
@@ -40,12 +61,36 @@ public class UserController {
     }
 
     @GetMapping("/{id}")
-    public User get(@PathVariable("id") @Positive long userId) {
-        return userService.getById(userId);
+    public User get(@PathVariable("id") @Positive long userId, WebRequest request) {
+        User user = userService.getById(userId);
+        if (request.checkNotModified(EntityTags.of(user.getId(), user.getVersion()))) {
+            return null;
+        }
+        return user;
     }
 
     @GetMapping
-    public List<User> getUsers() {
-        return userService.getUsers();
+    public ResponseEntity<List<UserDto>> getUsers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "100") @Positive @Max(1000) Integer size,
+            WebRequest request) {
+        CursorPage<UserDto> users = userService.getUsers(cursor, size);
+        if (request.checkNotModified(EntityTags.ofAll(users.getContent(),
+                u -> u.getId() + ":" + u.getName() + ":" + u.getEmail()))) {
+            return null;
+        }
+        return users.toResponseEntity();
+    }
+
+    @GetMapping(params = "ids")
+    public LookupResultDto<UserDto> getByIds(@RequestParam(name = "ids") List<Long> ids) {
+        return userService.getByIds(ids);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.exportUsers());
     }
 }
\ No newline at end of file
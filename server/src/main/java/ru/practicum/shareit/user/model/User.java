@@ -2,12 +2,15 @@ package ru.practicum.shareit.user.model;
 
 import javax.persistence.*;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Where;
 
 import java.util.Objects;
 
 @Entity
 @Table(name = "users")
+@Where(clause = "deleted = false")
 @Getter
 @Setter
 @Builder
@@ -20,8 +23,19 @@ public class User {
     private Long id;
     @Column(nullable = false)
     private String name;
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
+    @Version
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private boolean deleted;
+
+    public User(Long id, String name, String email) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+    }
 
     public User(String name, String email) {
         this.name = name;
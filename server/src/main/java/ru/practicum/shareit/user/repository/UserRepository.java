@@ -1,7 +1,41 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-}
\ No newline at end of file
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    String SELECT_DTO = "select new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) from User u ";
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update User u set u.deleted = true, u.version = u.version + 1 " +
+            "where u.id = ?1 and u.deleted = false")
+    int softDeleteById(Long userId);
+
+    @Query(SELECT_DTO +
+            "where u.id > ?1 order by u.id")
+    List<UserDto> findPageAfter(Long id, Pageable pageable);
+
+    @Query(SELECT_DTO +
+            "where u.id in ?1")
+    List<UserDto> findAllByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_DTO +
+            "order by u.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = NdjsonExporter.FETCH_SIZE))
+    Stream<UserDto> streamAll();
+}
@@ -0,0 +1,6 @@
+package ru.practicum.shareit.user.repository;
+
+public interface UserRepositoryCustom {
+
+    int updateFields(Long userId, String name, String email);
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.user.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    private final EntityManager entityManager;
+
+    public UserRepositoryCustomImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public int updateFields(Long userId, String name, String email) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        if (name != null) {
+            update.set(user.<String>get("name"), name);
+        }
+        if (email != null) {
+            update.set(user.<String>get("email"), email);
+        }
+        Path<Long> version = user.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.where(cb.equal(user.get("id"), userId), cb.isFalse(user.get("deleted")));
+        int updated = entityManager.createQuery(update).executeUpdate();
+        if (updated > 0) {
+            entityManager.detach(entityManager.getReference(User.class, userId));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.user.service;
+
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    ImportResultDto importUsers(ImportFormat format, InputStream body);
+}
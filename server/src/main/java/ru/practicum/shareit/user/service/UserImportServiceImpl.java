@@ -0,0 +1,208 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.importing.CsvRecordParser;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportReport;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.user.cache.UserEmailFilter;
+import ru.practicum.shareit.user.cache.UserIdIndex;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+    private static final String INSERT_USER = "insert into users (name, email, version) values (:name, :email, 0)";
+    private static final String SELECT_EXISTING = "select email from users where deleted = false and email in (:emails)";
+    private static final String SELECT_IDS = "select id from users where deleted = false and email in (:emails)";
+    private static final String NAME = "name";
+    private static final String EMAIL = "email";
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader userReader;
+    private final Validator validator;
+    private final UserIdIndex userIdIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final int batchSize;
+
+    @Autowired
+    public UserImportServiceImpl(NamedParameterJdbcTemplate jdbcTemplate,
+                                 TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper,
+                                 Validator validator,
+                                 UserIdIndex userIdIndex,
+                                 UserEmailFilter userEmailFilter,
+                                 @Value("${shareit.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userReader = objectMapper.readerFor(UserCreateDto.class);
+        this.validator = validator;
+        this.userIdIndex = userIdIndex;
+        this.userEmailFilter = userEmailFilter;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public ImportResultDto importUsers(ImportFormat format, InputStream body) {
+        ImportReport report = new ImportReport();
+        Map<String, Long> seenEmails = new HashMap<>();
+        List<UserRow> batch = new ArrayList<>(batchSize);
+        long startedAt = System.nanoTime();
+        try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Function<String, UserCreateDto> parser = format == ImportFormat.CSV
+                    ? csvParser(reader.readLine())
+                    : this::parseJson;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                long lineNumber = reader.getLineNumber();
+                try {
+                    UserCreateDto user = parser.apply(line);
+                    validate(user);
+                    Long firstLine = seenEmails.putIfAbsent(user.getEmail(), lineNumber);
+                    if (firstLine != null) {
+                        throw new ValidationException(String.format("Email duplicates line %d", firstLine));
+                    }
+                    batch.add(new UserRow(lineNumber, user.getName(), user.getEmail()));
+                } catch (ValidationException e) {
+                    report.addError(lineNumber, e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    flush(batch, report);
+                }
+            }
+            flush(batch, report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Imported {} users in {} ms", report.getImported(), (System.nanoTime() - startedAt) / 1_000_000);
+        return report.toImportResultDto();
+    }
+
+    private void flush(List<UserRow> batch, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            List<UserRow> accepted = rejectExisting(batch.stream()
+                    .filter(row -> userEmailFilter.mightExist(row.getEmail()))
+                    .collect(Collectors.toList()), batch, report);
+            List<Long> ids;
+            try {
+                ids = insert(accepted);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("User import batch raced with a concurrent insert, rechecking {} emails", accepted.size());
+                accepted = rejectExisting(accepted, accepted, report);
+                ids = insert(accepted);
+            }
+            userIdIndex.addAll(ids);
+            userEmailFilter.addAll(accepted.stream().map(UserRow::getEmail).collect(Collectors.toList()));
+            report.addImported(accepted.size());
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private List<UserRow> rejectExisting(List<UserRow> candidates, List<UserRow> rows, ImportReport report) {
+        if (candidates.isEmpty()) {
+            return new ArrayList<>(rows);
+        }
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(SELECT_EXISTING,
+                Map.of("emails", emails(candidates)), String.class));
+        List<UserRow> accepted = new ArrayList<>(rows.size());
+        for (UserRow row : rows) {
+            if (existing.contains(row.getEmail())) {
+                report.addError(row.getLine(), "Email exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        return accepted;
+    }
+
+    private List<Long> insert(List<UserRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.batchUpdate(INSERT_USER, rows.stream()
+                    .map(row -> new MapSqlParameterSource(NAME, row.getName()).addValue(EMAIL, row.getEmail()))
+                    .toArray(SqlParameterSource[]::new));
+            return jdbcTemplate.queryForList(SELECT_IDS, Map.of("emails", emails(rows)), Long.class);
+        });
+    }
+
+    private static List<String> emails(List<UserRow> rows) {
+        return rows.stream().map(UserRow::getEmail).collect(Collectors.toList());
+    }
+
+    private UserCreateDto parseJson(String line) {
+        try {
+            return userReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Function<String, UserCreateDto> csvParser(String header) {
+        CsvRecordParser csv = new CsvRecordParser(header, NAME, EMAIL);
+        return line -> {
+            Map<String, String> record = csv.parse(line);
+            return UserCreateDto.builder()
+                    .name(record.get(NAME))
+                    .email(record.get(EMAIL))
+                    .build();
+        };
+    }
+
+    private void validate(UserCreateDto user) {
+        Set<ConstraintViolation<UserCreateDto>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new ValidationException(violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class UserRow {
+        private final long line;
+        private final String name;
+        private final String email;
+    }
+}
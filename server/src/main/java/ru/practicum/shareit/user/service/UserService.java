@@ -1,5 +1,8 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -15,5 +18,13 @@ public interface UserService {
 
     User getById(Long userId);
 
-    List<User> getUsers();
+    User getReference(Long userId);
+
+    void checkExists(Long userId);
+
+    CursorPage<UserDto> getUsers(String cursor, Integer size);
+
+    LookupResultDto<UserDto> getByIds(List<Long> ids);
+
+    StreamingResponseBody exportUsers();
 }
\ No newline at end of file
@@ -3,9 +3,23 @@ package ru.practicum.shareit.user.service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.exception.EmailDuplicateException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.lookup.IdLookup;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.user.cache.UserEmailFilter;
+import ru.practicum.shareit.user.cache.UserIdIndex;
+import ru.practicum.shareit.user.cache.UserTombstones;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -13,48 +27,88 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.function.Function;
 
 @Service
 @Slf4j
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserTombstones userTombstones;
+    private final UserIdIndex userIdIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final NdjsonExporter ndjsonExporter;
+    private final ItemRepository itemRepository;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository,
+                           UserTombstones userTombstones,
+                           UserIdIndex userIdIndex,
+                           UserEmailFilter userEmailFilter,
+                           NdjsonExporter ndjsonExporter,
+                           ItemRepository itemRepository,
+                           ItemCache itemCache,
+                           ItemSearchCache itemSearchCache) {
         this.userRepository = userRepository;
+        this.userTombstones = userTombstones;
+        this.userIdIndex = userIdIndex;
+        this.userEmailFilter = userEmailFilter;
+        this.ndjsonExporter = ndjsonExporter;
+        this.itemRepository = itemRepository;
+        this.itemCache = itemCache;
+        this.itemSearchCache = itemSearchCache;
     }
 
     public UserDto create(UserCreateDto userCreateDto) {
         try {
             User user = UserMapper.toUser(userCreateDto);
             log.info("New user added: email={}", user.getEmail());
-            return UserMapper.toUserDto(userRepository.save(user));
+            User savedUser = userRepository.save(user);
+            userIdIndex.add(savedUser.getId());
+            userEmailFilter.add(savedUser.getEmail());
+            return UserMapper.toUserDto(savedUser);
         } catch (DataIntegrityViolationException e) {
             throw new EmailDuplicateException("Email exists");
         }
     }
 
     public UserDto update(UserDto userDto, Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException(String.format("User not found: id=%d", userId)));
+        if (userDto.getName() == null && userDto.getEmail() == null) {
+            return UserMapper.toUserDto(getById(userId));
+        }
+        int updated;
         try {
-            if (userDto.getEmail() != null) {
-                user.setEmail(userDto.getEmail());
-            }
-            if (userDto.getName() != null) {
-                user.setName(userDto.getName());
-            }
-            log.info("User updated: id={}", user.getId());
-            return UserMapper.toUserDto(userRepository.save(user));
+            updated = userRepository.updateFields(userId, userDto.getName(), userDto.getEmail());
         } catch (DataIntegrityViolationException e) {
             throw new EmailDuplicateException("Email exists");
         }
+        if (updated == 0) {
+            throw new NotFoundException(String.format("User not found: id=%d", userId));
+        }
+        log.info("User updated: id={}", userId);
+        if (userDto.getEmail() != null) {
+            userEmailFilter.add(userDto.getEmail());
+        }
+        if (userDto.getName() != null && userDto.getEmail() != null) {
+            return new UserDto(userId, userDto.getName(), userDto.getEmail());
+        }
+        return UserMapper.toUserDto(getById(userId));
     }
 
+    @Transactional
     public void deleteUser(Long userId) {
-        validateUserId(userId);
-        log.info("User deleted: id={}", userId);
-        userRepository.deleteById(userId);
+        if (userRepository.softDeleteById(userId) == 0) {
+            throw new NotFoundException(String.format("User not found: id=%d", userId));
+        }
+        int items = itemRepository.softDeleteAllByOwnerId(userId);
+        userTombstones.add(userId);
+        userIdIndex.remove(userId);
+        itemCache.invalidateOwner(userId);
+        if (items > 0) {
+            itemSearchCache.invalidateAll();
+        }
+        log.info("User deleted: id={}, items={}", userId, items);
     }
 
     public User getById(Long userId) {
@@ -62,11 +116,37 @@ public class UserServiceImpl implements UserService {
                 new NotFoundException(String.format("User not found: id=%d", userId)));
     }
 
-    public List<User> getUsers() {
-        return userRepository.findAll();
+    public User getReference(Long userId) {
+        checkExists(userId);
+        return userRepository.getReferenceById(userId);
+    }
+
+    public void checkExists(Long userId) {
+        if (userIdIndex.contains(userId)) {
+            return;
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("User not found: id=%d", userId));
+        }
+        userIdIndex.add(userId);
+    }
+
+    public CursorPage<UserDto> getUsers(String cursor, Integer size) {
+        long after = cursor != null ? IdCursor.decode(cursor).getId() : 0;
+        List<UserDto> users = userRepository.findPageAfter(after, PageRequest.of(0, size + 1));
+        if (users.size() <= size) {
+            return new CursorPage<>(users, null);
+        }
+        List<UserDto> page = users.subList(0, size);
+        return new CursorPage<>(page, new IdCursor(page.get(size - 1).getId()).encode());
+    }
+
+    public LookupResultDto<UserDto> getByIds(List<Long> ids) {
+        return IdLookup.lookup(ids, userRepository::findAllByIdIn, UserDto::getId);
     }
 
-    private void validateUserId(Long userId) {
-        getById(userId);
+    public StreamingResponseBody exportUsers() {
+        log.info("Export of users started");
+        return ndjsonExporter.export(userRepository::streamAll, Function.identity());
     }
 }
\ No newline at end of file
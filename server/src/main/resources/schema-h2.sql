@@ -0,0 +1,5 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS active_email VARCHAR(512)
+    GENERATED ALWAYS AS (CASE WHEN deleted THEN NULL ELSE email END);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_user_email ON users (active_email);
+CREATE INDEX IF NOT EXISTS ix_items_owner_id ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS ix_items_geohash ON items (geohash);
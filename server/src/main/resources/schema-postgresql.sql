@@ -0,0 +1,6 @@
+CREATE UNIQUE INDEX IF NOT EXISTS uq_user_email ON users (email) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS ix_users_deleted ON users (id) WHERE deleted = TRUE;
+CREATE INDEX IF NOT EXISTS ix_items_owner_id ON items (owner_id, id) WHERE deleted = FALSE;
+CREATE INDEX IF NOT EXISTS ix_items_deleted ON items (id) WHERE deleted = TRUE;
+CREATE INDEX IF NOT EXISTS ix_items_geohash ON items (geohash text_pattern_ops)
+    WHERE deleted = FALSE AND geohash IS NOT NULL;
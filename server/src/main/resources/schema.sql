@@ -1,12 +1,13 @@
-DROP TABLE IF EXISTS comments, bookings, items, requests, users;
+DROP TABLE IF EXISTS item_similarities, item_stats, comments, bookings, items, requests, users;
 
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
     name  VARCHAR(255)                            NOT NULL,
     email VARCHAR(512)                            NOT NULL,
-    CONSTRAINT pk_user PRIMARY KEY (id),
-    CONSTRAINT uq_user_email UNIQUE (email)
+    version BIGINT DEFAULT 0                      NOT NULL,
+    deleted BOOLEAN DEFAULT FALSE                 NOT NULL,
+    CONSTRAINT pk_user PRIMARY KEY (id)
 );
 
 CREATE TABLE IF NOT EXISTS requests
@@ -15,6 +16,7 @@ CREATE TABLE IF NOT EXISTS requests
     description  VARCHAR(512),
     created      TIMESTAMP default current_timestamp,
     owner_id     BIGINT                                  NOT NULL,
+    version      BIGINT DEFAULT 0                        NOT NULL,
     CONSTRAINT pk_request PRIMARY KEY (id),
     CONSTRAINT fk_requests_owner_id FOREIGN KEY (owner_id) REFERENCES users (id)
 );
@@ -27,6 +29,11 @@ CREATE TABLE IF NOT EXISTS items
     is_available BOOLEAN                                 NOT NULL,
     owner_id     BIGINT                                  NOT NULL,
     request_id   BIGINT,
+    latitude     DOUBLE PRECISION,
+    longitude    DOUBLE PRECISION,
+    geohash      VARCHAR(12),
+    version      BIGINT DEFAULT 0                        NOT NULL,
+    deleted      BOOLEAN DEFAULT FALSE                   NOT NULL,
     CONSTRAINT pk_item PRIMARY KEY (id),
     CONSTRAINT fk_items_owner_id FOREIGN KEY (owner_id) REFERENCES users (id),
     CONSTRAINT fk_items_request_id FOREIGN KEY (request_id) REFERENCES requests(id)
@@ -55,4 +62,26 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT pk_comments PRIMARY KEY (id),
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item_id_created ON comments (item_id, created DESC, id DESC);
+CREATE INDEX IF NOT EXISTS ix_comments_author_id ON comments (author_id);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_id ON bookings (item_id);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_id ON bookings (booker_id);
+CREATE INDEX IF NOT EXISTS ix_requests_owner_id_created ON requests (owner_id, created DESC);
+
+CREATE TABLE IF NOT EXISTS item_stats
+(
+    item_id  BIGINT           NOT NULL,
+    bookings BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT pk_item_stats PRIMARY KEY (item_id),
+    CONSTRAINT fk_item_stats_item_id FOREIGN KEY (item_id) REFERENCES items (id)
+);
+
+CREATE TABLE IF NOT EXISTS item_similarities
+(
+    item_id         BIGINT  NOT NULL,
+    similar_item_id BIGINT  NOT NULL,
+    score           INTEGER NOT NULL,
+    CONSTRAINT pk_item_similarities PRIMARY KEY (item_id, similar_item_id)
+);
@@ -1,6 +1,10 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,22 +13,32 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingCreateDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.lookup.LookupResultDto;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
@@ -36,6 +50,9 @@ public class BookingIntegrationTest {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
     private final UserCreateDto userCreateDtoOwner = UserCreateDto.builder()
             .name("user_name")
             .email("user_email@yandex.ru")
@@ -86,6 +103,165 @@ public class BookingIntegrationTest {
         assertThat(result.getStatus(), equalTo(booking.getStatus()));
     }
 
+    @Test
+    void create_shouldLoadBookerAndItemBeforeInsert() {
+        UserDto userDtoOwner = userService.create(userCreateDtoOwner);
+        UserDto userDtoBooker = userService.create(userCreateDtoBooker);
+        ItemDto itemDto = itemService.create(userDtoOwner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        itemService.getById(itemDto.getId(), userDtoOwner.getId());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.create(userDtoBooker.getId(), BookingCreateDto.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .itemId(itemDto.getId())
+                .build());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+    }
+
+    @Test
+    void getByIds_shouldReportBookingsOfOtherUsersAsMissing() {
+        UserDto userDtoOwner = userService.create(userCreateDtoOwner);
+        UserDto userDtoBooker = userService.create(userCreateDtoBooker);
+        UserDto stranger = userService.create(UserCreateDto.builder()
+                .name("stranger")
+                .email("stranger@yandex.ru")
+                .build());
+        ItemDto itemDto = itemService.create(userDtoOwner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto own = bookingService.create(userDtoBooker.getId(), BookingCreateDto.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .itemId(itemDto.getId())
+                .build());
+        BookingDto foreign = bookingService.create(stranger.getId(), BookingCreateDto.builder()
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .itemId(itemDto.getId())
+                .build());
+
+        LookupResultDto<BookingDto> byBooker = bookingService.getByIds(userDtoBooker.getId(),
+                List.of(foreign.getId(), own.getId()));
+        LookupResultDto<BookingDto> byOwner = bookingService.getByIds(userDtoOwner.getId(),
+                List.of(foreign.getId(), own.getId()));
+
+        assertThat(byBooker.getFound().get(0).getId(), equalTo(own.getId()));
+        assertThat(byBooker.getMissing(), contains(foreign.getId()));
+        assertThat(byOwner.getFound().size(), equalTo(2));
+        assertThat(byOwner.getFound().get(0).getId(), equalTo(foreign.getId()));
+    }
+
+    @Test
+    void getAll_shouldListBookingsOfDeletedItemUntilPurged() {
+        UserDto userDtoOwner = userService.create(userCreateDtoOwner);
+        UserDto userDtoBooker = userService.create(userCreateDtoBooker);
+        ItemDto itemDto = itemService.create(userDtoOwner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto bookingDto = bookingService.create(userDtoBooker.getId(), BookingCreateDto.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .itemId(itemDto.getId())
+                .build());
+
+        itemService.deleteItem(itemDto.getId(), userDtoOwner.getId());
+
+        assertThat(ids(bookingService.getAllByBooker(userDtoBooker.getId(), BookingState.ALL, null, null)),
+                contains(bookingDto.getId()));
+        assertThat(ids(bookingService.getAllByBooker(userDtoBooker.getId(), BookingState.ALL, 0, 10)),
+                contains(bookingDto.getId()));
+        assertThat(ids(bookingService.getAllByItemsOwner(userDtoOwner.getId(), BookingState.ALL, null, null)),
+                contains(bookingDto.getId()));
+        assertThat(ids(bookingService.getAllByItemsOwner(userDtoOwner.getId(), BookingState.ALL, 0, 10)),
+                contains(bookingDto.getId()));
+    }
+
+    @Test
+    void getAll_shouldListBookingsOfDeletedOwnerAndBooker() {
+        UserDto userDtoOwner = userService.create(userCreateDtoOwner);
+        UserDto userDtoBooker = userService.create(userCreateDtoBooker);
+        UserDto stranger = userService.create(UserCreateDto.builder()
+                .name("stranger")
+                .email("stranger@yandex.ru")
+                .build());
+        ItemDto itemDto = itemService.create(userDtoOwner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto own = bookingService.create(userDtoBooker.getId(), BookingCreateDto.builder()
+                .start(start)
+                .end(start.plusDays(1))
+                .itemId(itemDto.getId())
+                .build());
+        BookingDto foreign = bookingService.create(stranger.getId(), BookingCreateDto.builder()
+                .start(start.plusDays(2))
+                .end(start.plusDays(3))
+                .itemId(itemDto.getId())
+                .build());
+
+        userService.deleteUser(stranger.getId());
+        entityManager.clear();
+
+        assertThat(ids(bookingService.getAllByItemsOwner(userDtoOwner.getId(), BookingState.ALL, null, null)),
+                contains(foreign.getId(), own.getId()));
+        assertThat(itemService.getById(itemDto.getId(), userDtoOwner.getId()).getNextBooking().getId(),
+                equalTo(own.getId()));
+
+        userService.deleteUser(userDtoOwner.getId());
+        entityManager.clear();
+
+        assertThat(ids(bookingService.getAllByBooker(userDtoBooker.getId(), BookingState.ALL, null, null)),
+                contains(own.getId()));
+    }
+
+    @Test
+    void exportByItemsOwner_shouldStreamOneJsonLinePerBooking() throws IOException {
+        UserDto userDtoOwner = userService.create(userCreateDtoOwner);
+        UserDto userDtoBooker = userService.create(userCreateDtoBooker);
+        ItemDto itemDto = itemService.create(userDtoOwner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 3; i++) {
+            bookingService.create(userDtoBooker.getId(), BookingCreateDto.builder()
+                    .start(start.plusDays(i))
+                    .end(start.plusDays(i).plusHours(1))
+                    .itemId(itemDto.getId())
+                    .build());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bookingService.exportByItemsOwner(userDtoOwner.getId()).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, equalTo(3));
+        for (String line : lines) {
+            JsonNode booking = objectMapper.readTree(line);
+            assertThat(booking.get("item").get("id").asLong(), equalTo(itemDto.getId()));
+            assertThat(booking.get("booker").get("id").asLong(), equalTo(userDtoBooker.getId()));
+        }
+    }
+
     private Booking mapRowToBooking(ResultSet rs) throws SQLException {
         return new Booking(
                 rs.getLong("id"),
@@ -95,4 +271,8 @@ public class BookingIntegrationTest {
                 User.builder().id(rs.getLong("booker_id")).build(),
                 BookingStatus.valueOf(rs.getString("status")));
     }
-}
\ No newline at end of file
+
+    private static List<Long> ids(List<BookingDto> bookings) {
+        return bookings.stream().map(BookingDto::getId).collect(Collectors.toList());
+    }
+}
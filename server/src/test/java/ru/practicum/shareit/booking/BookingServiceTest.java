@@ -16,6 +16,8 @@ import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.stats.ItemStatsCounter;
+import ru.practicum.shareit.item.trending.TrendingItems;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.model.User;
 
@@ -39,6 +41,10 @@ class BookingServiceTest {
     private BookingMapper bookingMapper;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemStatsCounter itemStatsCounter;
+    @Mock
+    private TrendingItems trendingItems;
     @InjectMocks
     private BookingServiceImpl bookingService;
     private static final Long USER_ID_WRONG = 5L;
@@ -87,13 +93,15 @@ class BookingServiceTest {
 
         when(bookingMapper.toBooking(bookingCreateDto)).thenReturn(booking);
         when(userService.getById(anyLong())).thenReturn(user);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(booking);
         when(bookingMapper.toBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.create(USER_ID_WRONG, bookingCreateDto);
 
         verify(bookingRepository, times(1)).save(booking);
+        verify(itemStatsCounter).increment(ITEM_ID);
+        verify(trendingItems).recordBooking(ITEM_ID);
         assertNotNull(result);
         assertThat(result.getItem(), equalTo(item));
         assertThat(result.getBooker(), equalTo(user));
@@ -102,6 +110,7 @@ class BookingServiceTest {
 
     @Test
     void create_shouldThrowNotFoundExceptionWhenUserIsOwnerOfItem() {
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
 
         assertThrows(NotFoundException.class, () -> bookingService.create(USER_ID, bookingCreateDto));
 
@@ -153,6 +162,7 @@ class BookingServiceTest {
 
         BookingDto result = bookingService.approve(USER_ID, BOOKING_ID, true);
 
+        verifyNoInteractions(itemStatsCounter);
         assertNotNull(result);
         assertThat(result.getStatus(), equalTo(BookingStatus.APPROVED));
     }
@@ -168,6 +178,7 @@ class BookingServiceTest {
 
         BookingDto result = bookingService.approve(USER_ID, BOOKING_ID, false);
 
+        verify(itemStatsCounter).decrement(booking.getItem().getId());
         assertNotNull(result);
         assertThat(result.getStatus(), equalTo(BookingStatus.REJECTED));
     }
@@ -183,7 +194,6 @@ class BookingServiceTest {
     @Test
     void getAllByBooker_shouldReturnListOfOneBooking() {
 
-        when(userService.getById(USER_ID)).thenReturn(user);
         when(bookingRepository.findAllByBooker_IdOrderByStartDesc(USER_ID))
                 .thenReturn(List.of(booking));
         when(bookingMapper.toBookingDto(booking))
@@ -199,9 +209,7 @@ class BookingServiceTest {
     @Test
     void getAllByItemsOwner_shouldReturnListOfOneBooking() {
 
-        when(userService.getById(USER_ID)).thenReturn(user);
-        when(itemRepository.findAllByOwnerId(USER_ID)).thenReturn(List.of(item));
-        when(bookingRepository.findAll()).thenReturn(List.of(booking));
+        when(bookingRepository.findAllByItemOwnerId(USER_ID)).thenReturn(List.of(booking));
         when(bookingMapper.toBookingDto(booking))
                 .thenReturn(bookingDto);
 
@@ -215,8 +223,8 @@ class BookingServiceTest {
     @Test
     void getAllByItemsOwner_shouldNotFoundExceptionWhenUserHasNoItems() {
 
-        when(userService.getById(USER_ID)).thenReturn(user);
-        when(itemRepository.findAllByOwnerId(USER_ID)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findAllByItemOwnerId(USER_ID)).thenReturn(Collections.emptyList());
+        when(itemRepository.existsByOwnerId(USER_ID)).thenReturn(false);
 
         assertThrows(NotFoundException.class,
                 () -> bookingService.getAllByItemsOwner(USER_ID, BookingState.FUTURE, null, null));
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.collection;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LongHashSetTest {
+
+    @Test
+    void add_shouldReportNewKeysOnly() {
+        LongHashSet set = new LongHashSet();
+
+        assertThat(set.add(7L), equalTo(true));
+        assertThat(set.add(7L), equalTo(false));
+        assertThat(set.add(0L), equalTo(true));
+
+        assertThat(set.contains(7L), equalTo(true));
+        assertThat(set.contains(0L), equalTo(true));
+        assertThat(set.contains(8L), equalTo(false));
+        assertThat(set.size(), equalTo(2));
+    }
+
+    @Test
+    void remove_shouldKeepCollidingKeysReachable() {
+        LongHashSet set = new LongHashSet();
+        for (long key = 1; key <= 10_000; key++) {
+            set.add(key);
+        }
+
+        for (long key = 1; key <= 10_000; key += 2) {
+            assertThat(set.remove(key), equalTo(true));
+        }
+
+        assertThat(set.size(), equalTo(5_000));
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(set.contains(key), equalTo(key % 2 == 0));
+        }
+        assertThat(set.remove(1L), equalTo(false));
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class LongIntHashMapTest {
+
+    @Test
+    void addTo_shouldAccumulatePerKey() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        map.addTo(7L, 1);
+        map.addTo(7L, 2);
+        map.addTo(0L, 5);
+
+        assertThat(map.get(7L), equalTo(3));
+        assertThat(map.get(0L), equalTo(5));
+        assertThat(map.get(8L), equalTo(0));
+        assertThat(map.size(), equalTo(2));
+    }
+
+    @Test
+    void addTo_shouldKeepAllEntriesWhenGrowing() {
+        LongIntHashMap map = new LongIntHashMap();
+        for (long key = 1; key <= 10_000; key++) {
+            map.addTo(key * 31, (int) key);
+        }
+
+        Map<Long, Integer> entries = new HashMap<>();
+        map.forEach(entries::put);
+
+        assertThat(map.size(), equalTo(10_000));
+        assertThat(entries.size(), equalTo(10_000));
+        assertThat(map.get(31L * 5_000), equalTo(5_000));
+        assertThat(entries.get(31L * 10_000), equalTo(10_000));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.shareit.geo;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasLength;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GeoHashTest {
+
+    @Test
+    void encode_shouldReturnKnownHashes() {
+        assertThat(GeoHash.encode(42.6, -5.6, 5), equalTo("ezs42"));
+        assertThat(GeoHash.encode(57.64911, 10.40744, 11), equalTo("u4pruydqqvj"));
+        assertThat(GeoHash.encode(57.64911, 10.40744).length(), equalTo(GeoHash.MAX_PRECISION));
+    }
+
+    @Test
+    void coveringCells_shouldReturnNeighbourhoodOfCenterCell() {
+        GeoPoint center = GeoPoint.of(55.75, 37.62);
+
+        Set<String> cells = GeoHash.coveringCells(center, 10);
+
+        assertThat(cells, hasSize(9));
+        assertThat(cells, hasItem(GeoHash.encode(55.75, 37.62, 4)));
+        assertThat(cells, everyItem(hasLength(4)));
+    }
+
+    @Test
+    void coveringCells_shouldReturnEmptySetForHugeRadius() {
+        assertThat(GeoHash.coveringCells(GeoPoint.of(0, 0), 10000), empty());
+    }
+
+    @Test
+    void distanceKm_shouldUseGreatCircleDistance() {
+        GeoPoint moscow = GeoPoint.of(55.7558, 37.6173);
+
+        assertThat(moscow.distanceKm(59.9343, 30.3351), closeTo(634, 5));
+        assertThat(moscow.distanceKm(55.7558, 37.6173), closeTo(0, 1e-9));
+    }
+
+    @Test
+    void parse_shouldRejectInvalidCoordinates() {
+        assertThat(GeoPoint.parse("55.75, 37.62"), equalTo(GeoPoint.of(55.75, 37.62)));
+        assertThrows(ValidationException.class, () -> GeoPoint.parse("55.75"));
+        assertThrows(ValidationException.class, () -> GeoPoint.parse("north,south"));
+        assertThrows(ValidationException.class, () -> GeoPoint.parse("91,0"));
+    }
+}
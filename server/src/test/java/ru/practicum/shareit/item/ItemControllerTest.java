@@ -5,16 +5,28 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.geo.GeoPoint;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
+import ru.practicum.shareit.item.dto.OwnerFacetDto;
+import ru.practicum.shareit.item.model.ItemSort;
+import ru.practicum.shareit.item.service.ItemImportService;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.trending.TrendingItems;
+import ru.practicum.shareit.item.trending.TrendingPeriod;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -22,6 +34,8 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,6 +50,10 @@ public class ItemControllerTest {
     private static final String ITEM_DESCRIPTION = "item_description";
     @MockBean
     private ItemService itemService;
+    @MockBean
+    private ItemImportService itemImportService;
+    @MockBean
+    private TrendingItems trendingItems;
     @Autowired
     private ObjectMapper objectMapper;
     @Autowired
@@ -98,6 +116,29 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.name", is(itemDto.getName())));
     }
 
+    @Test
+    void updateAvailability_shouldReturnUpdatedCountWithStatus200() throws Exception {
+        when(itemService.updateAvailability(eq(USER_ID), any())).thenReturn(new ItemAvailabilityResultDto(2));
+
+        mockMvc.perform(patch(URL + "/availability")
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .contentType("application/json")
+                        .content("{\"itemIds\":[1,2],\"available\":false}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated", is(2)));
+        verify(itemService, never()).update(any(), any(), any());
+    }
+
+    @Test
+    void updateAvailability_shouldReturn400WithoutFlag() throws Exception {
+        mockMvc.perform(patch(URL + "/availability")
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .contentType("application/json")
+                        .content("{\"itemIds\":[1,2]}"))
+                .andExpect(status().isBadRequest());
+        verify(itemService, never()).updateAvailability(any(), any());
+    }
+
     @Test
     void delete_shouldDeleteItemByIdWithStatus200() throws Exception {
         mockMvc.perform(delete(URL + "/{id}", ITEM_ID)
@@ -118,6 +159,7 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.description", is(itemDto.getDescription())))
                 .andExpect(jsonPath("$.available", is(itemDto.getAvailable())))
                 .andExpect(jsonPath("$.ownerId", is(itemDto.getOwnerId()), Long.class));
+        verify(trendingItems).recordView(ITEM_ID);
     }
 
     @Test
@@ -166,6 +208,113 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.length()", is(1)));
     }
 
+    @Test
+    void keywordSearch_shouldReturnItemsWithFacetsWhenRequested() throws Exception {
+        ItemFacetsDto facets = new ItemFacetsDto(2, 1, 1, 0, List.of(new OwnerFacetDto(USER_ID, 2)));
+        when(itemService.searchWithFacets("one", ItemSort.ID, null, 10, 0, 10))
+                .thenReturn(new ItemSearchResultDto(List.of(itemDto), facets));
+
+        mockMvc.perform(get(URL + "/search").param("text", "one").param("facets", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(1)))
+                .andExpect(jsonPath("$.facets.total", is(2)))
+                .andExpect(jsonPath("$.facets.owners[0].ownerId", is(USER_ID.intValue())));
+        verify(itemService, never()).keywordSearch(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearch_shouldRankByPopularityWhenRequested() throws Exception {
+        when(itemService.popularSearch("one", 0, 10)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/search").param("text", "one").param("sort", "POPULAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+        verify(itemService, never()).keywordSearch(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearch_shouldAcceptLowercaseSort() throws Exception {
+        when(itemService.popularSearch("one", 0, 10)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/search").param("text", "one").param("sort", "popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+        verify(itemService, never()).keywordSearch(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearch_shouldAnswer400ForUnknownSort() throws Exception {
+        mockMvc.perform(get(URL + "/search").param("text", "one").param("sort", "newest"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void keywordSearch_shouldSearchNearbyWhenLocationGiven() throws Exception {
+        when(itemService.searchNearby(eq(""), eq(ItemSort.ID), eq(GeoPoint.of(55.75, 37.62)), eq(5.0), eq(0),
+                eq(10)))
+                .thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/search").param("near", "55.75,37.62").param("radius", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+        verify(itemService, never()).keywordSearch(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearch_shouldApplySortWithinRadius() throws Exception {
+        when(itemService.searchNearby("tent", ItemSort.POPULAR, GeoPoint.of(55.75, 37.62), 10.0, 0, 10))
+                .thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/search").param("text", "tent").param("near", "55.75,37.62")
+                        .param("sort", "popular"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+        verify(itemService, never()).popularSearch(any(), any(), any());
+    }
+
+    @Test
+    void keywordSearch_shouldReturnBadRequestForInvalidLocation() throws Exception {
+        mockMvc.perform(get(URL + "/search").param("near", "95,37.62"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getTrending_shouldReturnItemsForRequestedPeriod() throws Exception {
+        when(itemService.getTrending(TrendingPeriod.DAY, 5)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/trending").param("period", "DAY").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+
+    @Test
+    void getTrending_shouldAcceptLowercasePeriod() throws Exception {
+        when(itemService.getTrending(TrendingPeriod.HOUR, 10)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/trending").param("period", "hour"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+    }
+
+    @Test
+    void getTrending_shouldAnswer400ForUnknownPeriod() throws Exception {
+        mockMvc.perform(get(URL + "/trending").param("period", "week"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Unknown period: week")));
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getSimilar_shouldReturnPrecomputedNeighbours() throws Exception {
+        when(itemService.getSimilar(1L)).thenReturn(List.of(itemDto));
+
+        mockMvc.perform(get(URL + "/1/similar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId().intValue())));
+    }
+
     @Test
     void createComment_shouldAddCommentAndReturn() throws Exception {
         CommentCreateDto commentCreateDto = CommentCreateDto.builder()
@@ -199,4 +348,58 @@ public class ItemControllerTest {
                 .andDo(print())
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getComments_shouldReturnPageWithNextCursorHeader() throws Exception {
+        CommentDto commentDto = new CommentDto(2L, "comment", "user", LocalDateTime.of(2022, 9, 1, 12, 0));
+
+        when(itemService.getComments(ITEM_ID, USER_ID, null, 1))
+                .thenReturn(new CursorPage<>(List.of(commentDto), "next"));
+
+        mockMvc.perform(get(URL + "/{itemId}/comments", ITEM_ID)
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(commentDto.getId()), Long.class));
+    }
+
+    @Test
+    void get_shouldAnswer304WhenItemIsNotModified() throws Exception {
+        when(itemService.getById(ITEM_ID, USER_ID)).thenReturn(itemDto);
+
+        String etag = mockMvc.perform(get(URL + "/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", USER_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(URL + "/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void get_shouldAnswer200WhenItemVersionChanged() throws Exception {
+        when(itemService.getById(ITEM_ID, USER_ID)).thenReturn(itemDto);
+
+        String etag = mockMvc.perform(get(URL + "/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", USER_ID))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+        itemDto.setVersion(1L);
+
+        mockMvc.perform(get(URL + "/{itemId}", ITEM_ID)
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(itemDto.getId()), Long.class));
+    }
+}
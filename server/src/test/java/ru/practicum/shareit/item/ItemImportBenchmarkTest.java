@@ -0,0 +1,55 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@Slf4j
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemImportBenchmarkTest {
+    private static final int BENCHMARK_ITEMS = 20_000;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemImportService itemImportService;
+    private final UserService userService;
+
+    @Test
+    void importItems_shouldInsertNdjsonLinesAndMeasureThroughput() {
+        Long ownerId = userService.create(UserCreateDto.builder()
+                .name("owner")
+                .email("benchmark_owner@yandex.ru")
+                .build()).getId();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < BENCHMARK_ITEMS; i++) {
+            body.append("{\"name\":\"item ").append(i)
+                    .append("\",\"description\":\"imported item\",\"available\":true}\n");
+        }
+
+        long startedAt = System.nanoTime();
+        ImportResultDto result = itemImportService.importItems(ownerId, ImportFormat.NDJSON,
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        log.info("Imported {} items at {} items/s", result.getImported(), Math.round(result.getImported() / seconds));
+
+        assertThat(result.getImported(), equalTo((long) BENCHMARK_ITEMS));
+        assertThat(result.getFailed(), equalTo(0L));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from items where owner_id = ?", Long.class,
+                ownerId), equalTo((long) BENCHMARK_ITEMS));
+    }
+}
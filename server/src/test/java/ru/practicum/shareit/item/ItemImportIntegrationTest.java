@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.geo.GeoHash;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.item.service.ItemImportService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "shareit.import.batch-size=2")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemImportIntegrationTest {
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemImportService itemImportService;
+    private final UserService userService;
+    private Long ownerId;
+
+    @BeforeEach
+    void init() {
+        ownerId = userService.create(UserCreateDto.builder()
+                .name("owner")
+                .email("import_owner@yandex.ru")
+                .build()).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("delete from items where owner_id = ?", ownerId);
+        jdbcTemplate.update("delete from users where id = ?", ownerId);
+    }
+
+    @Test
+    void importItems_shouldKeepFlushedBatchesAndDropPendingOneWhenStreamFails() {
+        String body = "{\"name\":\"item 1\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"item 2\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"item 3\",\"description\":\"description\",\"available\":true}\n";
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> itemImportService.importItems(
+                ownerId, ImportFormat.NDJSON, new SequenceInputStream(stream(body), failing)));
+
+        assertThat(e.getCause().getMessage(), equalTo("Connection reset"));
+        assertThat(jdbcTemplate.queryForList("select name from items where owner_id = ? order by id", String.class,
+                ownerId), contains("item 1", "item 2"));
+    }
+
+    @Test
+    void importItems_shouldReportInvalidCsvLinesAndImportTheRest() {
+        String body = "name,description,available,requestId\n" +
+                "Дрель,\"Мощная, ударная\",true,\n" +
+                ",без названия,true,\n" +
+                "Пила,ручная,maybe,\n" +
+                "Палатка,двухместная,false,999\n" +
+                "\"Отвертка,description,true,\n";
+
+        ImportResultDto result = itemImportService.importItems(ownerId, ImportFormat.CSV, stream(body));
+
+        assertThat(result.getImported(), equalTo(1L));
+        assertThat(result.getFailed(), equalTo(4L));
+        assertThat(result.getErrors(), hasSize(4));
+        assertThat(result.getErrors().get(0).getLine(), equalTo(3L));
+        assertThat(result.getErrors().get(0).getMessage(), equalTo("name must not be blank"));
+        assertThat(result.getErrors().get(2).getMessage(), equalTo("Request not found: id=999"));
+        assertThat(jdbcTemplate.queryForList("select description from items where owner_id = ?", String.class,
+                ownerId), contains("Мощная, ударная"));
+    }
+
+    @Test
+    void importItems_shouldReportTooLongFieldsPerLine() {
+        String body = "{\"name\":\"" + "n".repeat(256) + "\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"item\",\"description\":\"" + "d".repeat(513) + "\",\"available\":true}\n" +
+                "{\"name\":\"item\",\"description\":\"description\",\"available\":true}\n";
+
+        ImportResultDto result = itemImportService.importItems(ownerId, ImportFormat.NDJSON, stream(body));
+
+        assertThat(result.getImported(), equalTo(1L));
+        assertThat(result.getErrors(), hasSize(2));
+        assertThat(result.getErrors().get(0).getMessage(), equalTo("name size must be between 0 and 255"));
+        assertThat(result.getErrors().get(1).getLine(), equalTo(2L));
+    }
+
+    @Test
+    void importItems_shouldStoreLocationWithGeohash() {
+        String json = "{\"name\":\"Tent\",\"description\":\"json\",\"available\":true," +
+                "\"latitude\":55.75,\"longitude\":37.62}\n";
+        String csv = "name,description,available,latitude,longitude\n" +
+                "Tent,csv,true,55.75,37.62\n" +
+                "Tent,no location,true,,\n" +
+                "Tent,bad location,true,north,37.62\n";
+
+        itemImportService.importItems(ownerId, ImportFormat.NDJSON, stream(json));
+        ImportResultDto result = itemImportService.importItems(ownerId, ImportFormat.CSV, stream(csv));
+
+        assertThat(result.getImported(), equalTo(2L));
+        assertThat(result.getErrors().get(0).getMessage(), equalTo("latitude must be a number"));
+        assertThat(jdbcTemplate.queryForList("select geohash from items where owner_id = ? order by id",
+                String.class, ownerId), contains(GeoHash.encode(55.75, 37.62), GeoHash.encode(55.75, 37.62), null));
+    }
+
+    @Test
+    void importItems_shouldReportMalformedJsonLine() {
+        String body = "{\"name\":\"item\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"broken\"\n";
+
+        ImportResultDto result = itemImportService.importItems(ownerId, ImportFormat.NDJSON, stream(body));
+
+        assertThat(result.getImported(), equalTo(1L));
+        assertThat(result.getErrors(), hasSize(1));
+        assertThat(result.getErrors().get(0).getLine(), equalTo(2L));
+    }
+
+    @Test
+    void importItems_shouldRejectCsvWithoutRequiredColumns() {
+        assertThrows(ValidationException.class, () -> itemImportService.importItems(ownerId, ImportFormat.CSV,
+                stream("name,available\nitem,true\n")));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
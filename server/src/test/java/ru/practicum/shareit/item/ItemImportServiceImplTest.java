@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.service.ItemImportServiceImpl;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemImportServiceImplTest {
+    private static final Long USER_ID = 1L;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private UserService userService;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private RequestFeed requestFeed;
+    @Mock
+    private RequestMatcher requestMatcher;
+    private ItemImportServiceImpl itemImportService;
+
+    @BeforeEach
+    void init() {
+        itemImportService = new ItemImportServiceImpl(jdbcTemplate, transactionTemplate, new ObjectMapper()
+                .registerModule(new ParameterNamesModule(JsonCreator.Mode.DEFAULT)),
+                Validation.buildDefaultValidatorFactory().getValidator(), userService, itemRequestRepository,
+                itemSearchCache, requestFeed, requestMatcher, 3);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void importItems_shouldReportLinesRejectedByDatabaseAndKeepTheRestOfTheBatch() {
+        String body = "{\"name\":\"first\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"rejected\",\"description\":\"description\",\"available\":true}\n" +
+                "{\"name\":\"third\",\"description\":\"description\",\"available\":true}\n";
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        when(jdbcTemplate.update(anyString(), ArgumentMatchers.<Object>any())).thenAnswer(invocation -> {
+            if ("rejected".equals(invocation.getArgument(1))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return 1;
+        });
+
+        ImportResultDto result = itemImportService.importItems(USER_ID, ImportFormat.NDJSON,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(result.getImported(), equalTo(2L));
+        assertThat(result.getFailed(), equalTo(1L));
+        assertThat(result.getErrors(), hasSize(1));
+        assertThat(result.getErrors().get(0).getLine(), equalTo(2L));
+        verify(jdbcTemplate, times(3)).update(anyString(), ArgumentMatchers.<Object>any());
+        verify(itemSearchCache).invalidateAll();
+    }
+}
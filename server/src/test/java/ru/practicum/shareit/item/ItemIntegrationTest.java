@@ -1,26 +1,50 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSearchResultDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSort;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.stats.ItemStatsCounter;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.service.ItemRequestService;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -29,6 +53,11 @@ public class ItemIntegrationTest {
     private final JdbcTemplate jdbcTemplate;
     private final ItemService itemService;
     private final UserService userService;
+    private final ItemRequestService itemRequestService;
+    private final ObjectMapper objectMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final ItemStatsCounter itemStatsCounter;
     private final UserCreateDto userCreateDto = UserCreateDto.builder()
             .name("user_name")
             .email("user_email@yandex.ru")
@@ -60,6 +89,299 @@ public class ItemIntegrationTest {
         assertThat(item.getOwner().getId(), equalTo(userDto.getId()));
     }
 
+    @Test
+    void create_shouldIssueOnlyInsertStatement() {
+        UserDto userDto = userService.create(userCreateDto);
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        itemService.create(userDto.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    void getByIds_shouldResolveIdsInOneQueryPreservingOrder() {
+        UserDto userDto = userService.create(userCreateDto);
+        ItemDto first = itemService.create(userDto.getId(), ItemCreateDto.builder()
+                .name("first")
+                .description("item_description")
+                .available(true)
+                .build());
+        ItemDto second = itemService.create(userDto.getId(), ItemCreateDto.builder()
+                .name("second")
+                .description("item_description")
+                .available(false)
+                .build());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        LookupResultDto<ItemDto> result = itemService.getByIds(userDto.getId(),
+                List.of(second.getId(), 999_999L, first.getId()));
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(result.getFound().stream().map(ItemDto::getName).collect(Collectors.toList()),
+                contains("second", "first"));
+        assertThat(result.getMissing(), contains(999_999L));
+    }
+
+    @Test
+    void update_shouldIssueOnlyUpdateStatementForCachedItem() {
+        UserDto userDto = userService.create(userCreateDto);
+        ItemDto itemDto = itemService.create(userDto.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        itemService.getById(itemDto.getId(), userDto.getId());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ItemDto result = itemService.update(userDto.getId(), ItemDto.builder().available(false).build(),
+                itemDto.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(result.getAvailable(), equalTo(false));
+        assertThat(result.getName(), equalTo("item_name"));
+        assertThat(jdbcTemplate.queryForObject("select is_available from items where id = ?", Boolean.class,
+                itemDto.getId()), equalTo(false));
+    }
+
+    @Test
+    void updateAvailability_shouldChangeOnlyOwnItemsWithOneUpdate() {
+        UserDto owner = userService.create(userCreateDto);
+        UserDto other = userService.create(UserCreateDto.builder().name("other").email("other@yandex.ru").build());
+        ItemCreateDto itemCreateDto = ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build();
+        ItemDto first = itemService.create(owner.getId(), itemCreateDto);
+        ItemDto second = itemService.create(owner.getId(), itemCreateDto);
+        ItemDto foreign = itemService.create(other.getId(), itemCreateDto);
+        itemService.getById(first.getId(), owner.getId());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ItemAvailabilityResultDto result = itemService.updateAvailability(owner.getId(),
+                new ItemAvailabilityDto(List.of(first.getId(), second.getId(), foreign.getId()), false));
+
+        assertThat(result.getUpdated(), equalTo(2));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(itemService.getById(first.getId(), owner.getId()).getAvailable(), equalTo(false));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from items where is_available = true and id = ?",
+                Integer.class, foreign.getId()), equalTo(1));
+    }
+
+    @Test
+    void searchWithFacets_shouldCountFacetsInTheSameScanAsHits() {
+        UserDto owner = userService.create(userCreateDto);
+        UserDto other = userService.create(UserCreateDto.builder().name("other").email("other@yandex.ru").build());
+        ItemRequestDto request = itemRequestService.create(other.getId(),
+                ItemRequestDto.builder().description("need a hammer").build());
+        itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Hammer").description("steel").available(true).requestId(request.getId()).build());
+        itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Sledge hammer").description("heavy").available(false).build());
+        itemService.create(other.getId(), ItemCreateDto.builder()
+                .name("Rubber mallet").description("soft hammer").available(true).build());
+        itemService.create(other.getId(), ItemCreateDto.builder()
+                .name("Saw").description("wood").available(true).build());
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        ItemSearchResultDto result = itemService.searchWithFacets("hammer", ItemSort.ID, null, 10, 0, 10);
+
+        assertThat(result.getItems().size(), equalTo(2));
+        assertThat(result.getFacets().getTotal(), equalTo(3L));
+        assertThat(result.getFacets().getAvailable(), equalTo(2L));
+        assertThat(result.getFacets().getUnavailable(), equalTo(1L));
+        assertThat(result.getFacets().getAnswersRequest(), equalTo(1L));
+        assertThat(result.getFacets().getOwners().get(0).getOwnerId(), equalTo(owner.getId()));
+        assertThat(result.getFacets().getOwners().get(0).getCount(), equalTo(2L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+
+        statistics.clear();
+        itemService.searchWithFacets("HAMMER", ItemSort.ID, null, 10, 1, 10);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    void popularSearch_shouldRankByFlushedBookingCounts() {
+        UserDto owner = userService.create(userCreateDto);
+        ItemDto quiet = itemService.create(owner.getId(), lamp("desk lamp"));
+        ItemDto busy = itemService.create(owner.getId(), lamp("floor lamp"));
+        ItemDto busiest = itemService.create(owner.getId(), lamp("table lamp"));
+        for (int i = 0; i < 3; i++) {
+            itemStatsCounter.increment(busy.getId());
+        }
+        itemStatsCounter.increment(busiest.getId());
+        itemStatsCounter.flush();
+        for (int i = 0; i < 4; i++) {
+            itemStatsCounter.increment(busiest.getId());
+        }
+        itemStatsCounter.decrement(busiest.getId());
+        itemStatsCounter.flush();
+
+        List<ItemDto> firstPage = itemService.popularSearch("lamp", 0, 2);
+        List<ItemDto> secondPage = itemService.popularSearch("lamp", 2, 2);
+
+        assertThat(firstPage.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                contains(busiest.getId(), busy.getId()));
+        assertThat(secondPage.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                contains(quiet.getId()));
+        assertThat(jdbcTemplate.queryForObject("select bookings from item_stats where item_id = ?",
+                Long.class, busiest.getId()), equalTo(4L));
+    }
+
+    @Test
+    void searchNearby_shouldReturnItemsWithinRadiusOrderedByDistance() {
+        UserDto owner = userService.create(userCreateDto);
+        ItemDto far = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Tent").description("two seats").available(true)
+                .latitude(55.80).longitude(37.62).build());
+        ItemDto near = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Tent").description("four seats").available(true)
+                .latitude(55.751).longitude(37.621).build());
+        itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Tent").description("in another city").available(true)
+                .latitude(59.93).longitude(30.33).build());
+        itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Bike").description("mountain").available(true)
+                .latitude(55.75).longitude(37.62).build());
+        itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Tent").description("without location").available(true).build());
+
+        List<ItemDto> items = itemService.searchNearby("tent", ItemSort.ID, GeoPoint.of(55.75, 37.62), 10, 0, 10);
+
+        assertThat(items.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                contains(near.getId(), far.getId()));
+        assertThat(items.get(0).getLatitude(), equalTo(55.751));
+        assertThat(itemService.searchNearby("", ItemSort.ID, GeoPoint.of(55.75, 37.62), 10, 0, 10).size(), equalTo(3));
+        assertThat(itemService.searchNearby("tent", ItemSort.ID, GeoPoint.of(55.75, 37.62), 1000, 1, 10).size(), equalTo(2));
+    }
+
+    @Test
+    void searchNearby_shouldRankByPopularityWithinRadius() {
+        UserDto owner = userService.create(userCreateDto);
+        ItemDto quiet = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Kayak").description("close").available(true)
+                .latitude(55.751).longitude(37.621).build());
+        ItemDto busy = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Kayak").description("further").available(true)
+                .latitude(55.78).longitude(37.62).build());
+        ItemDto outside = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Kayak").description("in another city").available(true)
+                .latitude(59.93).longitude(30.33).build());
+        itemStatsCounter.increment(busy.getId());
+        for (int i = 0; i < 3; i++) {
+            itemStatsCounter.increment(outside.getId());
+        }
+        itemStatsCounter.flush();
+
+        List<ItemDto> items = itemService.searchNearby("kayak", ItemSort.POPULAR, GeoPoint.of(55.75, 37.62), 10,
+                0, 10);
+
+        assertThat(items.stream().map(ItemDto::getId).collect(Collectors.toList()),
+                contains(busy.getId(), quiet.getId()));
+    }
+
+    @Test
+    void deleteUser_shouldHideOwnerItemsFromSearchAndLookup() {
+        UserDto owner = userService.create(userCreateDto);
+        UserDto viewer = userService.create(UserCreateDto.builder()
+                .name("viewer")
+                .email("viewer@yandex.ru")
+                .build());
+        ItemDto itemDto = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("Дрель удалённого владельца")
+                .description("item_description")
+                .available(true)
+                .build());
+        assertThat(itemService.keywordSearch("удалённого", 0, 10), hasSize(1));
+        itemService.getById(itemDto.getId(), viewer.getId());
+
+        userService.deleteUser(owner.getId());
+        entityManager.clear();
+
+        assertThat(itemService.keywordSearch("удалённого", 0, 10), empty());
+        assertThrows(NotFoundException.class, () -> itemService.getById(itemDto.getId(), viewer.getId()));
+    }
+
+    @Test
+    void create_shouldThrowNotFoundExceptionForUnknownOwner() {
+        ItemCreateDto itemCreateDto = ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build();
+
+        assertThrows(NotFoundException.class, () -> itemService.create(999L, itemCreateDto));
+    }
+
+    @Test
+    void createComment_shouldSkipLoadingBookingsAndItem() {
+        UserDto owner = userService.create(userCreateDto);
+        UserDto author = userService.create(UserCreateDto.builder()
+                .name("author")
+                .email("author@yandex.ru")
+                .build());
+        ItemDto itemDto = itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name("item_name")
+                .description("item_description")
+                .available(true)
+                .build());
+        jdbcTemplate.update("insert into bookings (start_time, end_time, item_id, booker_id, status) " +
+                        "values (?, ?, ?, ?, 'APPROVED')", LocalDateTime.now().minusDays(2),
+                LocalDateTime.now().minusDays(1), itemDto.getId(), author.getId());
+        itemService.getById(itemDto.getId(), owner.getId());
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        itemService.createComment(itemDto.getId(), author.getId(), CommentCreateDto.builder().text("text").build());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+    }
+
+    @Test
+    void exportUserItems_shouldStreamOneJsonLinePerItem() throws IOException {
+        UserDto userDto = userService.create(userCreateDto);
+        for (int i = 0; i < 3; i++) {
+            itemService.create(userDto.getId(), ItemCreateDto.builder()
+                    .name("item_" + i)
+                    .description("item_description")
+                    .available(true)
+                    .build());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        itemService.exportUserItems(userDto.getId()).writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, equalTo(3));
+        for (int i = 0; i < lines.length; i++) {
+            ItemDto itemDto = objectMapper.readValue(lines[i], ItemDto.class);
+            assertThat(itemDto.getName(), equalTo("item_" + i));
+            assertThat(itemDto.getOwnerId(), equalTo(userDto.getId()));
+        }
+    }
+
     private Item mapRowToItem(ResultSet rs) throws SQLException {
         return new Item(
                 rs.getLong("id"),
@@ -69,4 +391,12 @@ public class ItemIntegrationTest {
                 User.builder().id(rs.getLong("owner_id")).build(),
                 ItemRequest.builder().id(rs.getLong("request_id")).build());
     }
-}
\ No newline at end of file
+
+    private ItemCreateDto lamp(String description) {
+        return ItemCreateDto.builder()
+                .name("Lamp")
+                .description(description)
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.model.ItemSearchSnapshot;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.model.ItemSort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ItemSearchCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+    private ItemSearchCache cache;
+
+    @BeforeEach
+    void init() {
+        cache = new ItemSearchCache(1000, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_shouldLoadOnceForSameNormalizedText() {
+        cache.get("Дрель", 0, 10, this::load);
+        cache.get("дРЕЛЬ", 0, 10, this::load);
+
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    void get_shouldKeepSeparateEntriesForDifferentPages() {
+        cache.get("дрель", 0, 10, this::load);
+        cache.get("дрель", 10, 10, this::load);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void invalidate_shouldEvictOnlyTextsMatchingChangedItem() {
+        cache.get("дрель", 0, 10, this::load);
+        cache.get("палатка", 0, 10, this::load);
+
+        cache.invalidate(item("Аккумуляторная дрель", "description", true));
+        cache.get("дрель", 0, 10, this::load);
+        cache.get("палатка", 0, 10, this::load);
+
+        assertThat(loads.get(), equalTo(3));
+    }
+
+    @Test
+    void invalidate_shouldEvictTextMatchedByPreviousStateOnly() {
+        cache.get("велосипед", 0, 10, this::load);
+
+        cache.invalidate(item("Велосипед", "горный", true), item("Самокат", "горный", false));
+        cache.get("велосипед", 0, 10, this::load);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void invalidate_shouldIgnoreUnavailableItems() {
+        cache.get("палатка", 0, 10, this::load);
+
+        cache.invalidate(item("Палатка", "двухместная", false));
+        cache.get("палатка", 0, 10, this::load);
+
+        assertThat(loads.get(), equalTo(1));
+    }
+
+    @Test
+    void invalidate_shouldEvictSnapshotsOnUnavailableItemsToo() {
+        cache.getSnapshot("палатка", ItemSort.ID, null, 10, this::loadSnapshot);
+        cache.getSnapshot("ПАЛАТКА", ItemSort.ID, null, 10, this::loadSnapshot);
+
+        cache.invalidate(item("Палатка", "двухместная", false));
+        cache.getSnapshot("палатка", ItemSort.ID, null, 10, this::loadSnapshot);
+
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    private ItemSearchSnapshot loadSnapshot() {
+        loads.incrementAndGet();
+        return new ItemSearchSnapshot(List.of(1L), new ItemFacetsDto(1, 1, 0, 0, List.of()));
+    }
+
+    private List<Long> load() {
+        loads.incrementAndGet();
+        return List.of(1L);
+    }
+
+    private ItemSnapshot item(String name, String description, boolean available) {
+        return new ItemSnapshot(1L, name, description, available, 1L, null, 0L, null, null);
+    }
+}
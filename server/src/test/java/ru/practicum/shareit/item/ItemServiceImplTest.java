@@ -1,30 +1,51 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import ru.practicum.shareit.booking.model.Booking;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.geo.GeoPoint;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
 import ru.practicum.shareit.item.comment.dto.CommentCreateDto;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.comment.mapper.CommentMapper;
+import ru.practicum.shareit.item.dto.ItemAvailabilityDto;
+import ru.practicum.shareit.item.dto.ItemAvailabilityResultDto;
 import ru.practicum.shareit.item.dto.ItemCreateDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemFacetsDto;
+import ru.practicum.shareit.item.dto.ItemSearchRow;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.model.ItemSort;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.repository.ItemSimilarityRepository;
+import ru.practicum.shareit.item.trending.TrendingItems;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.model.User;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -32,6 +53,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -52,6 +74,8 @@ public class ItemServiceImplTest {
             .available(true)
             .owner(user)
             .build();
+    private final ItemSnapshot itemSnapshot = new ItemSnapshot(ITEM_ID, ITEM_NAME, ITEM_DESCRIPTION,
+            true, USER_ID, null, 0L, null, null);
     private final ItemDto itemDto = ItemDto.builder()
             .id(ITEM_ID)
             .name(ITEM_NAME)
@@ -76,17 +100,29 @@ public class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentMapper commentMapper;
+    @Mock
+    private ItemCache itemCache;
+    @Mock
+    private NdjsonExporter ndjsonExporter;
+    @Mock
+    private ItemSimilarityRepository itemSimilarityRepository;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private RequestFeed requestFeed;
     private ItemService itemService;
 
     @BeforeEach
     void init() {
         itemService = new ItemServiceImpl(itemRepository, userService,
-                itemMapper, commentRepository, bookingRepository, commentMapper);
+                itemMapper, commentRepository, bookingRepository, commentMapper, itemCache,
+                new ItemSearchCache(1000, Duration.ofMinutes(1), new SimpleMeterRegistry()), ndjsonExporter, itemSimilarityRepository,
+                new TrendingItems(), requestMatcher, requestFeed);
     }
 
     @Test
     void create_shouldReturnNewItem() {
-        when(userService.getById(anyLong())).thenReturn(user);
+        when(userService.getReference(anyLong())).thenReturn(user);
         when(itemMapper.toItem(any(ItemCreateDto.class), any(User.class))).thenReturn(item);
         when(itemRepository.save(any(Item.class))).thenAnswer(returnsFirstArg());
         when(itemMapper.toItemDto(any(Item.class))).thenReturn(itemDto);
@@ -94,6 +130,7 @@ public class ItemServiceImplTest {
         ItemDto result = itemService.create(USER_ID, itemCreateDto);
 
         verify(itemRepository, times(1)).save(item);
+        verify(requestMatcher).match(itemDto);
         assertNotNull(result);
         assertThat(result.getId(), equalTo(item.getId()));
         assertThat(result.getName(), equalTo(item.getName()));
@@ -102,68 +139,153 @@ public class ItemServiceImplTest {
         assertThat(result.getOwnerId(), equalTo(item.getOwner().getId()));
     }
 
+    @Test
+    void create_shouldThrowNotFoundExceptionWhenOwnerForeignKeyIsViolated() {
+        when(userService.getReference(USER_ID)).thenReturn(user);
+        when(itemMapper.toItem(any(ItemCreateDto.class), any(User.class))).thenReturn(item);
+        when(itemRepository.save(any(Item.class))).thenThrow(new DataIntegrityViolationException("fk_items_owner_id",
+                new SQLException("fk_items_owner_id", "23503")));
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> itemService.create(USER_ID, itemCreateDto));
+
+        assertThat(exception.getMessage(), equalTo(String.format("User not found: id=%d", USER_ID)));
+    }
+
     @Test
     void update_shouldUpdateItemName() {
         ItemDto itemDto = ItemDto.builder()
-                .id(ITEM_ID)
                 .name(ITEM_NAME_UPDATE)
-                .description(ITEM_DESCRIPTION)
-                .available(true)
-                .ownerId(USER_ID)
                 .build();
+        ItemSnapshot updated = new ItemSnapshot(ITEM_ID, ITEM_NAME_UPDATE, ITEM_DESCRIPTION, true, USER_ID, null, 1L, null, null);
 
-        when(userService.getById(anyLong())).thenReturn(user);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(itemRepository.save(any())).thenAnswer(returnsFirstArg());
-        when(itemMapper.toItemDto(any())).thenReturn(itemDto);
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+        when(itemRepository.updateFields(ITEM_ID, 0L, ITEM_NAME_UPDATE, null, null)).thenReturn(1);
+        when(itemMapper.toItemDto(any(ItemSnapshot.class))).thenReturn(itemDto);
 
         ItemDto result = itemService.update(USER_ID, itemDto, ITEM_ID);
 
-        verify(userService, times(1)).getById(anyLong());
-        verify(itemRepository, times(1)).findById(ITEM_ID);
-        verify(itemRepository, times(1)).save(item);
-        assertNotNull(result);
-        assertThat(result.getId(), equalTo(item.getId()));
-        assertThat(result.getName(), equalTo(item.getName()));
-        assertThat(result.getDescription(), equalTo(item.getDescription()));
-        assertThat(result.getAvailable(), equalTo(item.getAvailable()));
-        assertThat(result.getOwnerId(), equalTo(item.getOwner().getId()));
+        verify(userService, never()).getById(anyLong());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, never()).save(any());
+        verify(itemCache, times(1)).put(updated);
+        verify(itemMapper, times(1)).toItemDto(updated);
+        assertThat(result, equalTo(itemDto));
+    }
+
+    @Test
+    void update_shouldSkipWriteIfNothingChanges() {
+        ItemDto itemDto = ItemDto.builder()
+                .available(true)
+                .build();
+
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+
+        itemService.update(USER_ID, itemDto, ITEM_ID);
+
+        verify(itemRepository, never()).updateFields(anyLong(), anyLong(), any(), any(), any());
+        verify(itemMapper, times(1)).toItemDto(itemSnapshot);
+    }
+
+    @Test
+    void update_shouldReloadItemIfVersionIsStale() {
+        ItemDto itemDto = ItemDto.builder()
+                .available(false)
+                .build();
+        ItemSnapshot current = new ItemSnapshot(ITEM_ID, ITEM_NAME, ITEM_DESCRIPTION, true, USER_ID, null, 5L, null, null);
+
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot, current);
+        when(itemRepository.updateFields(ITEM_ID, 0L, null, null, false)).thenReturn(0);
+        when(itemRepository.updateFields(ITEM_ID, 5L, null, null, false)).thenReturn(1);
+
+        itemService.update(USER_ID, itemDto, ITEM_ID);
+
+        verify(itemCache, times(1)).invalidate(ITEM_ID);
+        verify(itemCache, times(1)).put(current.update(null, null, false));
     }
 
     @Test
     void update_shouldThrowNotFoundExceptionIfWrongOwner() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
                 () -> itemService.update(USER_ID_WRONG, itemDto, ITEM_ID));
 
-        verify(itemRepository, times(1)).findById(anyLong());
+        verify(itemRepository, never()).findById(anyLong());
         Assertions.assertEquals(String.format("User id=%d is not the owner item id=%d",
                 USER_ID_WRONG, ITEM_ID), exception.getMessage());
     }
 
+    @Test
+    void update_shouldThrowNotFoundExceptionIfUserNotFound() {
+        doThrow(new NotFoundException(String.format("User not found: id=%d", USER_ID_WRONG)))
+                .when(userService).checkExists(USER_ID_WRONG);
+
+        final NotFoundException exception = Assertions.assertThrows(
+                NotFoundException.class,
+                () -> itemService.update(USER_ID_WRONG, itemDto, ITEM_ID));
+
+        verifyNoInteractions(itemCache);
+        Assertions.assertEquals(String.format("User not found: id=%d", USER_ID_WRONG), exception.getMessage());
+    }
+
     @Test
     void update_shouldThrowNotFoundExceptionIfItemNotFound() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemCache.get(ITEM_ID)).thenThrow(new NotFoundException(String.format("Item not found: id=%d", ITEM_ID)));
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
                 () -> itemService.update(USER_ID, itemDto, ITEM_ID));
 
-        verify(itemRepository, times(1)).findById(anyLong());
+        verify(itemCache, times(1)).get(ITEM_ID);
         Assertions.assertEquals(String.format("Item not found: id=%d", ITEM_ID), exception.getMessage());
     }
 
+    @Test
+    void updateAvailability_shouldUpdateListedItemsAndInvalidateThemInBatch() {
+        List<Long> itemIds = List.of(ITEM_ID, 2L);
+        when(itemRepository.updateAvailabilityByOwnerIdAndIdIn(USER_ID, false, itemIds)).thenReturn(2);
+
+        ItemAvailabilityResultDto result = itemService.updateAvailability(USER_ID,
+                new ItemAvailabilityDto(itemIds, false));
+
+        assertThat(result.getUpdated(), equalTo(2));
+        verify(itemCache, times(1)).invalidateAll(itemIds);
+        verify(itemRepository, never()).updateAvailabilityByOwnerId(anyLong(), any());
+    }
+
+    @Test
+    void updateAvailability_shouldUpdateAllOwnerItemsWithoutIds() {
+        when(itemRepository.updateAvailabilityByOwnerId(USER_ID, true)).thenReturn(0);
+
+        ItemAvailabilityResultDto result = itemService.updateAvailability(USER_ID,
+                new ItemAvailabilityDto(null, true));
+
+        assertThat(result.getUpdated(), equalTo(0));
+        verify(itemCache, never()).invalidateOwner(anyLong());
+    }
+
     @Test
     void delete_shouldDeleteUser() {
         itemRepository.deleteById(ITEM_ID);
         verify(itemRepository, times(1)).deleteById(ITEM_ID);
     }
 
+    @Test
+    void delete_shouldSoftDeleteItemAndInvalidateCaches() {
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+
+        itemService.deleteItem(ITEM_ID, USER_ID);
+
+        verify(itemRepository, times(1)).softDeleteById(ITEM_ID);
+        verify(itemRepository, never()).deleteById(anyLong());
+        verify(itemCache, times(1)).invalidate(ITEM_ID);
+    }
+
     @Test
     void delete_shouldThrowNotFoundExceptionIfWrongItem_Id() {
-        when(itemRepository.findById(any())).thenThrow(NotFoundException.class);
+        when(itemCache.get(any())).thenThrow(NotFoundException.class);
 
         Assertions.assertThrows(NotFoundException.class, () ->
                 itemService.deleteItem(USER_ID_WRONG, ITEM_ID));
@@ -172,13 +294,13 @@ public class ItemServiceImplTest {
     @Test
     void delete_shouldThrowNotFoundExceptionIfUserNotFound() {
         String errorMessage = String.format("User not found: id=%d", USER_ID);
-        when(userService.getById(USER_ID)).thenThrow(new NotFoundException(errorMessage));
+        doThrow(new NotFoundException(errorMessage)).when(userService).checkExists(USER_ID);
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
                 () -> itemService.deleteItem(USER_ID, ITEM_ID));
 
-        verify(userService, times(1)).getById(USER_ID);
+        verify(userService, times(1)).checkExists(USER_ID);
         Assertions.assertEquals(errorMessage, exception.getMessage());
     }
 
@@ -198,13 +320,13 @@ public class ItemServiceImplTest {
 
     @Test
     void getById_throwNotFoundExceptionIfWrongItemId() {
-        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.empty());
+        when(itemCache.get(ITEM_ID)).thenThrow(new NotFoundException(String.format("Item not found: id=%d", ITEM_ID)));
 
         final NotFoundException exception = Assertions.assertThrows(
                 NotFoundException.class,
                 () -> itemService.getById(ITEM_ID, USER_ID));
 
-        verify(itemRepository, times(1)).findById(ITEM_ID);
+        verify(itemCache, times(1)).get(ITEM_ID);
         Assertions.assertEquals(String.format("Item not found: id=%d", ITEM_ID), exception.getMessage());
     }
 
@@ -225,16 +347,69 @@ public class ItemServiceImplTest {
 
     @Test
     void keywordSearch_shouldReturnListOfOneItem() {
-        when(itemRepository.search(any(), any())).thenReturn(List.of(item));
-        when(itemMapper.toItemDto(any())).thenReturn(itemDto);
+        when(itemRepository.searchIds(any(), any())).thenReturn(List.of(ITEM_ID));
+        when(itemRepository.findAllById(List.of(ITEM_ID))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(any(Item.class))).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.keywordSearch("test", 0, 10);
 
-        verify(itemRepository, times(1)).search(any(), any());
+        verify(itemRepository, times(1)).searchIds(any(), any());
         assertThat(result, hasSize(1));
         assertThat(result.get(0).getId(), equalTo(item.getId()));
     }
 
+    @Test
+    void keywordSearch_shouldReuseCachedIdsForRepeatedQuery() {
+        when(itemRepository.searchIds(any(), any())).thenReturn(List.of(ITEM_ID));
+        when(itemRepository.findAllById(List.of(ITEM_ID))).thenReturn(List.of(item));
+        when(itemMapper.toItemDto(any(Item.class))).thenReturn(itemDto);
+
+        itemService.keywordSearch("item", 0, 10);
+        List<ItemDto> result = itemService.keywordSearch("ITEM", 0, 10);
+
+        verify(itemRepository, times(1)).searchIds(any(), any());
+        assertThat(result, hasSize(1));
+    }
+
+    @Test
+    void searchWithFacets_shouldCountFacetsAndRankHitsInOnePass() {
+        when(itemRepository.streamSearchRows("drill", null, 10)).thenReturn(Stream.of(
+                new ItemSearchRow(1L, true, 1L, 7L, 2L, null, null),
+                new ItemSearchRow(2L, false, 1L, null, 9L, null, null),
+                new ItemSearchRow(3L, true, 2L, 7L, 5L, null, null),
+                new ItemSearchRow(4L, true, 2L, null, null, null, null),
+                new ItemSearchRow(5L, false, 3L, 8L, 1L, null, null)));
+        when(itemRepository.findAllById(List.of(3L, 1L))).thenReturn(List.of(item));
+
+        ItemFacetsDto facets = itemService.searchWithFacets("drill", ItemSort.POPULAR, null, 10, 0, 2)
+                .getFacets();
+
+        assertThat(facets.getTotal(), equalTo(5L));
+        assertThat(facets.getAvailable(), equalTo(3L));
+        assertThat(facets.getUnavailable(), equalTo(2L));
+        assertThat(facets.getAnswersRequest(), equalTo(3L));
+        assertThat(facets.getOwners(), hasSize(3));
+        assertThat(facets.getOwners().get(0).getOwnerId(), equalTo(1L));
+        assertThat(facets.getOwners().get(0).getCount(), equalTo(2L));
+        assertThat(facets.getOwners().get(2).getOwnerId(), equalTo(3L));
+        verify(itemRepository).findAllById(List.of(3L, 1L));
+    }
+
+    @Test
+    void searchWithFacets_shouldCountOnlyItemsWithinRadius() {
+        GeoPoint center = GeoPoint.of(55.75, 37.62);
+        when(itemRepository.streamSearchRows("", center, 5)).thenReturn(Stream.of(
+                new ItemSearchRow(1L, true, 1L, null, 0L, 55.77, 37.62),
+                new ItemSearchRow(2L, true, 1L, null, 0L, 55.76, 37.62),
+                new ItemSearchRow(3L, true, 2L, null, 0L, 55.75, 37.80)));
+
+        ItemFacetsDto facets = itemService.searchWithFacets("", ItemSort.ID, center, 5, 0, 10).getFacets();
+
+        assertThat(facets.getTotal(), equalTo(2L));
+        assertThat(facets.getOwners(), hasSize(1));
+        verify(itemRepository).findAllById(List.of(2L, 1L));
+    }
+
     @Test
     void createComment_shouldSaveAndReturnComment() {
         CommentCreateDto commentCreateDto = CommentCreateDto.builder().text("item_comment").build();
@@ -244,17 +419,11 @@ public class ItemServiceImplTest {
                 .build();
 
         when(userService.getById(USER_ID)).thenReturn(user);
-        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+        when(itemRepository.getReferenceById(ITEM_ID)).thenReturn(item);
         when(commentMapper.toCommentDto(any())).thenReturn(commentDto);
-
-        Booking booking = Booking.builder()
-                .item(item)
-                .booker(user)
-                .start(LocalDateTime.now().minusSeconds(120))
-                .end(LocalDateTime.now().minusSeconds(60))
-                .build();
-
-        when(bookingRepository.getBookingsByBookerId(any())).thenReturn(List.of(booking));
+        when(bookingRepository.existsByBooker_IdAndItem_IdAndStartBeforeAndEndBefore(eq(USER_ID), eq(ITEM_ID),
+                any(), any())).thenReturn(true);
         when(commentRepository.save(any())).thenAnswer(returnsFirstArg());
 
         CommentDto result = itemService.createComment(ITEM_ID, USER_ID, commentCreateDto);
@@ -263,4 +432,58 @@ public class ItemServiceImplTest {
         assertNotNull(result);
         assertThat(commentDto.getText(), equalTo(result.getText()));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createComment_shouldThrowValidationExceptionWithoutFinishedBooking() {
+        CommentCreateDto commentCreateDto = CommentCreateDto.builder().text("item_comment").build();
+
+        when(userService.getById(USER_ID)).thenReturn(user);
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+        when(bookingRepository.existsByBooker_IdAndItem_IdAndStartBeforeAndEndBefore(eq(USER_ID), eq(ITEM_ID),
+                any(), any())).thenReturn(false);
+
+        assertThrows(ValidationException.class, () -> itemService.createComment(ITEM_ID, USER_ID, commentCreateDto));
+        verify(commentRepository, never()).save(any());
+    }
+
+    @Test
+    void getComments_shouldReturnNextCursorWhenMoreCommentsExist() {
+        LocalDateTime created = LocalDateTime.of(2022, 9, 1, 12, 0);
+        List<CommentDto> comments = List.of(
+                new CommentDto(3L, "third", USER_NAME, created.plusMinutes(2)),
+                new CommentDto(2L, "second", USER_NAME, created.plusMinutes(1)),
+                new CommentDto(1L, "first", USER_NAME, created));
+
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+        when(commentRepository.findNewestByItemId(eq(ITEM_ID), any())).thenReturn(comments);
+
+        CursorPage<CommentDto> result = itemService.getComments(ITEM_ID, USER_ID, null, 2);
+
+        assertThat(result.getContent(), hasSize(2));
+        KeysetCursor next = KeysetCursor.decode(result.getNextCursor());
+        assertThat(next.getId(), equalTo(2L));
+        assertThat(next.getCreated(), equalTo(created.plusMinutes(1)));
+    }
+
+    @Test
+    void getComments_shouldContinueFromCursorAndStopOnLastPage() {
+        LocalDateTime created = LocalDateTime.of(2022, 9, 1, 12, 0);
+        String cursor = new KeysetCursor(created.plusMinutes(1), 2L).encode();
+
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+        when(commentRepository.findByItemIdBefore(eq(ITEM_ID), eq(created.plusMinutes(1)), eq(2L), any()))
+                .thenReturn(List.of(new CommentDto(1L, "first", USER_NAME, created)));
+
+        CursorPage<CommentDto> result = itemService.getComments(ITEM_ID, USER_ID, cursor, 2);
+
+        assertThat(result.getContent(), hasSize(1));
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getComments_shouldThrowValidationExceptionForMalformedCursor() {
+        when(itemCache.get(ITEM_ID)).thenReturn(itemSnapshot);
+
+        assertThrows(ValidationException.class, () -> itemService.getComments(ITEM_ID, USER_ID, "???", 2));
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.stats.ItemStatsCounter;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemStatsCounterTest {
+    private static final Long ITEM_ID = 1L;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    private ItemStatsCounter itemStatsCounter;
+
+    @BeforeEach
+    void init() {
+        itemStatsCounter = new ItemStatsCounter(jdbcTemplate, transactionTemplate);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldKeepDrainedDeltasWhenWriteFails() {
+        ArgumentCaptor<List<Object[]>> args = ArgumentCaptor.forClass(List.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1});
+        itemStatsCounter.increment(ITEM_ID);
+        itemStatsCounter.increment(ITEM_ID);
+
+        itemStatsCounter.flush();
+        itemStatsCounter.increment(ITEM_ID);
+        itemStatsCounter.flush();
+        itemStatsCounter.flush();
+
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), args.capture());
+        assertThat(args.getValue(), hasSize(1));
+        assertThat(args.getValue().get(0)[0], equalTo(3L));
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.similar.SimilarItemsJob;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SimilarItemsIntegrationTest {
+    private static final String INSERT_BOOKING = "insert into bookings (start_time, end_time, item_id, booker_id, " +
+            "status) values (?, ?, ?, ?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final SimilarItemsJob similarItemsJob;
+
+    @Test
+    void getSimilar_shouldReturnItemsBookedBySameUsers() {
+        UserDto owner = createUser("owner");
+        UserDto first = createUser("first");
+        UserDto second = createUser("second");
+        UserDto third = createUser("third");
+        ItemDto tent = createItem(owner, "Tent");
+        ItemDto stove = createItem(owner, "Stove");
+        ItemDto lamp = createItem(owner, "Lamp");
+        ItemDto drill = createItem(owner, "Drill");
+        book(tent, first, "APPROVED");
+        book(stove, first, "APPROVED");
+        book(tent, second, "WAITING");
+        book(stove, second, "APPROVED");
+        book(lamp, second, "APPROVED");
+        book(tent, third, "APPROVED");
+        book(lamp, third, "APPROVED");
+        book(drill, third, "REJECTED");
+
+        similarItemsJob.rebuild();
+
+        assertThat(ids(itemService.getSimilar(tent.getId())), contains(stove.getId(), lamp.getId()));
+        assertThat(ids(itemService.getSimilar(stove.getId())), contains(tent.getId(), lamp.getId()));
+        assertThat(itemService.getSimilar(drill.getId()), empty());
+    }
+
+    @Test
+    void getSimilar_shouldThrowNotFoundExceptionForUnknownItem() {
+        assertThrows(NotFoundException.class, () -> itemService.getSimilar(999L));
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserCreateDto.builder()
+                .name(name)
+                .email(name + "@yandex.ru")
+                .build());
+    }
+
+    private ItemDto createItem(UserDto owner, String name) {
+        return itemService.create(owner.getId(), ItemCreateDto.builder()
+                .name(name)
+                .description(name + " for camping")
+                .available(true)
+                .build());
+    }
+
+    private void book(ItemDto item, UserDto booker, String status) {
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update(INSERT_BOOKING, start, start.plusDays(1), item.getId(), booker.getId(), status);
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream().map(ItemDto::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.trending.TrendingItems;
+import ru.practicum.shareit.item.trending.TrendingPeriod;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+
+public class TrendingItemsTest {
+    private final MutableClock clock = new MutableClock();
+    private final TrendingItems trendingItems = new TrendingItems(clock);
+
+    @Test
+    void top_shouldRankBookingsAboveViews() {
+        for (int i = 0; i < 5; i++) {
+            trendingItems.recordView(1L);
+        }
+        trendingItems.recordBooking(2L);
+        trendingItems.recordBooking(2L);
+        trendingItems.recordView(3L);
+
+        assertThat(trendingItems.top(TrendingPeriod.HOUR, 2), contains(2L, 1L));
+    }
+
+    @Test
+    void top_shouldForgetOldActivityFasterInShortPeriod() {
+        for (int i = 0; i < 20; i++) {
+            trendingItems.recordView(1L);
+        }
+        clock.advance(Duration.ofHours(6));
+        for (int i = 0; i < 5; i++) {
+            trendingItems.recordView(2L);
+        }
+
+        assertThat(trendingItems.top(TrendingPeriod.HOUR, 2), contains(2L, 1L));
+        assertThat(trendingItems.top(TrendingPeriod.DAY, 2), contains(1L, 2L));
+    }
+
+    @Test
+    void top_shouldAdmitHeavyHitterWhenCandidatesAreFull() {
+        for (long itemId = 1; itemId <= TrendingItems.CAPACITY * 3; itemId++) {
+            trendingItems.recordView(itemId);
+        }
+        for (int i = 0; i < 10; i++) {
+            trendingItems.recordView(1000L);
+        }
+
+        assertThat(trendingItems.top(TrendingPeriod.DAY, 1), contains(1000L));
+        assertThat(trendingItems.top(TrendingPeriod.DAY, 500), hasSize(TrendingItems.CAPACITY));
+    }
+
+    @Test
+    void top_shouldKeepRankingAfterLongIdlePeriod() {
+        trendingItems.recordView(1L);
+        clock.advance(Duration.ofDays(30));
+        trendingItems.recordView(2L);
+        trendingItems.recordView(2L);
+        trendingItems.recordView(1L);
+
+        assertThat(trendingItems.top(TrendingPeriod.HOUR, 2), contains(2L, 1L));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2022-09-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
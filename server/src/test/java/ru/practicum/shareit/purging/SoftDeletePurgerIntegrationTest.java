@@ -0,0 +1,165 @@
+package ru.practicum.shareit.purging;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
+import ru.practicum.shareit.requests.service.ItemRequestService;
+import ru.practicum.shareit.user.cache.UserTombstones;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SoftDeletePurgerIntegrationTest {
+    private static final String INSERT_BOOKING = "insert into bookings (start_time, end_time, item_id, booker_id, " +
+            "status) values (?, ?, ?, ?, 'APPROVED')";
+    private static final String INSERT_COMMENT = "insert into comments (text, item_id, author_id) values (?, ?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+    private final SoftDeletePurger purger;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ItemCache itemCache;
+    private final ItemSearchCache itemSearchCache;
+    private final UserTombstones userTombstones;
+    private final RequestMatcher requestMatcher;
+    private final RequestFeed requestFeed;
+
+    @Test
+    void deleteUser_shouldHideUserAndReleaseEmail() {
+        UserDto user = createUser("owner");
+
+        userService.deleteUser(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getById(user.getId()));
+        assertThrows(NotFoundException.class, () -> userService.deleteUser(user.getId()));
+        assertThrows(NotFoundException.class, () -> itemService.create(user.getId(), item(null)));
+        UserDto recreated = createUser("owner");
+        assertThat(recreated.getEmail(), equalTo(user.getEmail()));
+    }
+
+    @Test
+    void deleteItem_shouldHideItemFromOwnerListAndSearch() {
+        UserDto owner = createUser("owner");
+        ItemDto item = itemService.create(owner.getId(), item(null));
+
+        itemService.deleteItem(item.getId(), owner.getId());
+
+        assertThrows(NotFoundException.class, () -> itemService.getById(item.getId(), owner.getId()));
+        assertThat(itemService.getUserItems(owner.getId(), 0, 10), empty());
+        assertThat(itemService.keywordSearch("drill", 0, 10), empty());
+    }
+
+    @Test
+    void purge_shouldRemoveDeletedItemWithBookingsAndComments() {
+        UserDto owner = createUser("owner");
+        UserDto booker = createUser("booker");
+        ItemDto deleted = itemService.create(owner.getId(), item(null));
+        ItemDto kept = itemService.create(owner.getId(), item(null));
+        book(deleted.getId(), booker.getId());
+        book(kept.getId(), booker.getId());
+        comment(deleted.getId(), booker.getId());
+        jdbcTemplate.update("insert into item_stats (item_id, bookings) values (?, 1)", deleted.getId());
+        itemService.deleteItem(deleted.getId(), owner.getId());
+
+        purger.purge();
+
+        assertThat(count("items where id = ?", deleted.getId()), equalTo(0));
+        assertThat(count("bookings where item_id = ?", deleted.getId()), equalTo(0));
+        assertThat(count("comments where item_id = ?", deleted.getId()), equalTo(0));
+        assertThat(count("item_stats where item_id = ?", deleted.getId()), equalTo(0));
+        assertThat(count("items where id = ?", kept.getId()), equalTo(1));
+        assertThat(count("bookings where item_id = ?", kept.getId()), equalTo(1));
+    }
+
+    @Test
+    void purge_shouldRemoveDeletedUserWithDependentRows() {
+        UserDto owner = createUser("owner");
+        UserDto requester = createUser("requester");
+        ItemDto ownerItem = itemService.create(owner.getId(), item(null));
+        ItemRequestDto request = itemRequestService.create(requester.getId(),
+                ItemRequestDto.builder().description("need a drill").build());
+        ItemDto answer = itemService.create(owner.getId(), item(request.getId()));
+        book(ownerItem.getId(), requester.getId());
+        comment(ownerItem.getId(), requester.getId());
+        userService.deleteUser(requester.getId());
+
+        purger.purge();
+
+        assertThat(count("users where id = ?", requester.getId()), equalTo(0));
+        assertThat(count("requests where id = ?", request.getId()), equalTo(0));
+        assertThat(count("bookings where booker_id = ?", requester.getId()), equalTo(0));
+        assertThat(count("comments where author_id = ?", requester.getId()), equalTo(0));
+        assertThat(count("items where request_id is null and id = ?", answer.getId()), equalTo(1));
+        assertThat(count("items where owner_id = ?", owner.getId()), equalTo(2));
+    }
+
+    @Test
+    void purge_shouldRemoveItemsOfDeletedOwnerInBatches() {
+        UserDto owner = createUser("owner");
+        for (int i = 0; i < 7; i++) {
+            itemService.create(owner.getId(), item(null));
+        }
+        userService.deleteUser(owner.getId());
+
+        new SoftDeletePurger(namedParameterJdbcTemplate, transactionTemplate, itemCache, itemSearchCache,
+                userTombstones, requestMatcher, requestFeed, 3).purge();
+
+        assertThat(count("items where owner_id = ?", owner.getId()), equalTo(0));
+        assertThat(count("users where id = ?", owner.getId()), equalTo(0));
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserCreateDto.builder()
+                .name(name)
+                .email(name + "@yandex.ru")
+                .build());
+    }
+
+    private ItemCreateDto item(Long requestId) {
+        return ItemCreateDto.builder()
+                .name("Drill")
+                .description("Cordless drill")
+                .available(true)
+                .requestId(requestId)
+                .build();
+    }
+
+    private void book(Long itemId, Long bookerId) {
+        LocalDateTime start = LocalDateTime.now().minusDays(2);
+        jdbcTemplate.update(INSERT_BOOKING, start, start.plusDays(1), itemId, bookerId);
+    }
+
+    private void comment(Long itemId, Long authorId) {
+        jdbcTemplate.update(INSERT_COMMENT, "Works fine", itemId, authorId);
+    }
+
+    private Integer count(String from, Long id) {
+        return jdbcTemplate.queryForObject("select count(*) from " + from, Integer.class, id);
+    }
+}
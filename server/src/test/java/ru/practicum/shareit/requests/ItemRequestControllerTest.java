@@ -7,7 +7,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.controller.ItemRequestController;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.service.ItemRequestService;
@@ -26,6 +28,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -95,7 +98,7 @@ public class ItemRequestControllerTest {
     @Test
     void getByUser_shouldAnswer200AndReturnListOfOneUserRequestWhenUserIsItemOwner() throws Exception {
 
-        when(itemRequestService.getByUser(USER_ID)).thenReturn(List.of(requestDto));
+        when(itemRequestService.getByUser(USER_ID, 0, 10)).thenReturn(List.of(requestDto));
 
         mockMvc.perform(get(URL)
                         .header("X-Sharer-User-Id", USER_ID))
@@ -111,7 +114,7 @@ public class ItemRequestControllerTest {
     @Test
     void getByUser_shouldAnswer404IfWrongUser() throws Exception {
 
-        when(itemRequestService.getByUser(USER_ID_WRONG)).thenThrow(NotFoundException.class);
+        when(itemRequestService.getByUser(USER_ID_WRONG, 0, 10)).thenThrow(NotFoundException.class);
 
         mockMvc.perform(get(URL)
                         .header("X-Sharer-User-Id", USER_ID_WRONG))
@@ -121,7 +124,7 @@ public class ItemRequestControllerTest {
     @Test
     void getAll_shouldAnswer200AndReturnEmptyRequestsIfRequestOwnerIsAnotherUserAndWithoutParams() throws Exception {
 
-        when(itemRequestService.getAll(USER_ID, null, null)).thenReturn(Collections.emptyList());
+        when(itemRequestService.getAll(USER_ID, 0, null, 10)).thenReturn(new CursorPage<>(Collections.emptyList(), null));
 
         mockMvc.perform(get(URL + "/all")
                         .header("X-Sharer-User-Id", USER_ID))
@@ -137,7 +140,7 @@ public class ItemRequestControllerTest {
                 .email("user_two_email@yandex.ru")
                 .build();
 
-        when(itemRequestService.getAll(any(), any(), any())).thenReturn(List.of(requestDto));
+        when(itemRequestService.getAll(any(), any(), any(), any())).thenReturn(new CursorPage<>(List.of(requestDto), null));
 
         mockMvc.perform(get(URL + "/all")
                         .header("X-Sharer-User-Id", userTwo.getId())
@@ -160,4 +163,16 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.ownerId", is(requestDto.getOwnerId()), Long.class))
                 .andExpect(jsonPath("$.items", is(requestDto.getItems())));
     }
-}
\ No newline at end of file
+
+    @Test
+    void subscribeToMatches_shouldStartEventStream() throws Exception {
+
+        when(itemRequestService.subscribeToMatches(USER_ID)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get(URL + "/matches")
+                        .header("X-Sharer-User-Id", USER_ID)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+    }
+}
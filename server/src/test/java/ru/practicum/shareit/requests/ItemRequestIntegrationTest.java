@@ -1,11 +1,17 @@
 package ru.practicum.shareit.requests;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.service.ItemRequestService;
@@ -14,12 +20,19 @@ import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -28,6 +41,9 @@ public class ItemRequestIntegrationTest {
     private final JdbcTemplate jdbcTemplate;
     private final UserService userService;
     private final ItemRequestService itemRequestService;
+    private final ItemService itemService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
     private static final String REQUEST_DESCRIPTION = "request_description";
     private final UserCreateDto userCreateDto = UserCreateDto.builder()
             .name("user_name")
@@ -58,6 +74,99 @@ public class ItemRequestIntegrationTest {
         assertThat(result.getOwner().getId(), equalTo(itemRequestDto.getOwnerId()));
     }
 
+    @Test
+    void create_shouldIssueOnlyInsertStatement() {
+        UserDto userDto = userService.create(userCreateDto);
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        itemRequestService.create(userDto.getId(), requestCreateDto);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+
+    @Test
+    void getByUserAndGetAll_shouldLoadItemsOfAllRequestsInOneQuery() {
+        UserDto requester = userService.create(userCreateDto);
+        UserDto viewer = userService.create(UserCreateDto.builder().name("viewer").email("viewer@yandex.ru").build());
+        for (int i = 0; i < 3; i++) {
+            ItemRequestDto request = itemRequestService.create(requester.getId(), requestCreateDto);
+            for (int j = 0; j < 2; j++) {
+                UserDto owner = userService.create(UserCreateDto.builder()
+                        .name("owner")
+                        .email("owner" + i + j + "@yandex.ru")
+                        .build());
+                itemService.create(owner.getId(), ItemCreateDto.builder()
+                        .name("item")
+                        .description("answer")
+                        .available(true)
+                        .requestId(request.getId())
+                        .build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ItemRequestDto> own = itemRequestService.getByUser(requester.getId(), 0, 10);
+        long ownStatements = statistics.getPrepareStatementCount();
+        entityManager.clear();
+        statistics.clear();
+        List<ItemRequestDto> all = itemRequestService.getAll(viewer.getId(), 0, null, 10).getContent();
+
+        assertThat(own.size(), equalTo(3));
+        assertThat(own.get(0).getItems().size(), equalTo(2));
+        assertThat(all.size(), equalTo(3));
+        assertThat(all.get(2).getItems().size(), equalTo(2));
+        assertThat(ownStatements, equalTo(2L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+    }
+
+    @Test
+    void getByUser_shouldPageNewestFirst() {
+        UserDto requester = userService.create(userCreateDto);
+        ItemRequestDto first = itemRequestService.create(requester.getId(), requestCreateDto);
+        ItemRequestDto second = itemRequestService.create(requester.getId(), requestCreateDto);
+        ItemRequestDto third = itemRequestService.create(requester.getId(), requestCreateDto);
+
+        List<ItemRequestDto> firstPage = itemRequestService.getByUser(requester.getId(), 0, 2);
+        List<ItemRequestDto> secondPage = itemRequestService.getByUser(requester.getId(), 2, 2);
+
+        assertThat(firstPage.stream().map(ItemRequestDto::getId).collect(Collectors.toList()),
+                contains(third.getId(), second.getId()));
+        assertThat(secondPage.stream().map(ItemRequestDto::getId).collect(Collectors.toList()),
+                contains(first.getId()));
+    }
+
+    @Test
+    void getAll_shouldSkipOwnRequestsAndContinueFromCursor() {
+        UserDto requester = userService.create(userCreateDto);
+        UserDto viewer = userService.create(UserCreateDto.builder().name("viewer").email("viewer@yandex.ru").build());
+        ItemRequestDto first = itemRequestService.create(requester.getId(), requestCreateDto);
+        itemRequestService.create(viewer.getId(), requestCreateDto);
+        ItemRequestDto second = itemRequestService.create(requester.getId(), requestCreateDto);
+        ItemRequestDto third = itemRequestService.create(requester.getId(), requestCreateDto);
+
+        CursorPage<ItemRequestDto> firstPage = itemRequestService.getAll(viewer.getId(), 0, null, 2);
+        CursorPage<ItemRequestDto> secondPage = itemRequestService.getAll(viewer.getId(), 0,
+                firstPage.getNextCursor(), 2);
+
+        assertThat(firstPage.getContent().stream().map(ItemRequestDto::getId).collect(Collectors.toList()),
+                contains(third.getId(), second.getId()));
+        assertThat(secondPage.getContent().stream().map(ItemRequestDto::getId).collect(Collectors.toList()),
+                contains(first.getId()));
+        assertThat(secondPage.getNextCursor(), nullValue());
+    }
+
+    @Test
+    void create_shouldThrowNotFoundExceptionForUnknownOwner() {
+        assertThrows(NotFoundException.class, () -> itemRequestService.create(999L, requestCreateDto));
+    }
+
     private ItemRequest mapRowToItemRequest(ResultSet rs) throws SQLException {
         return ItemRequest.builder()
                 .id(rs.getLong("id"))
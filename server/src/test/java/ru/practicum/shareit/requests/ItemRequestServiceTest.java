@@ -2,25 +2,36 @@ package ru.practicum.shareit.requests;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.feed.RequestFeed;
 import ru.practicum.shareit.requests.mapper.ItemRequestMapper;
+import ru.practicum.shareit.requests.matching.RequestMatchNotifier;
+import ru.practicum.shareit.requests.matching.RequestMatcher;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.requests.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.service.UserService;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.AdditionalAnswers.returnsFirstArg;
@@ -34,6 +45,14 @@ class ItemRequestServiceTest {
     private ItemRequestMapper requestMapper;
     @Mock
     private ItemRequestRepository requestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private RequestMatcher requestMatcher;
+    @Mock
+    private RequestMatchNotifier requestMatchNotifier;
+    @Mock
+    private RequestFeed requestFeed;
     @InjectMocks
     private ItemRequestServiceImpl requestService;
     private static final Long USER_ID = 1L;
@@ -68,13 +87,15 @@ class ItemRequestServiceTest {
     @Test
     void create_shouldCreateRequest() {
 
-        when(userService.getById(USER_ID)).thenReturn(user);
+        when(userService.getReference(USER_ID)).thenReturn(user);
         when(requestMapper.toItemRequest(requestCreateDto, user)).thenReturn(request);
         when(requestRepository.save(request)).thenAnswer(returnsFirstArg());
-        when(requestMapper.toItemRequestDto(request)).thenReturn(requestDto);
+        when(requestMapper.toItemRequestDto(request, Collections.emptyList())).thenReturn(requestDto);
 
         ItemRequestDto result = requestService.create(USER_ID, requestCreateDto);
 
+        verify(requestMatcher).add(REQUEST_ID, USER_ID, REQUEST_DESCRIPTION);
+        verify(requestFeed).invalidate();
         assertNotNull(result);
         assertThat(result.getId(), equalTo(requestDto.getId()));
         assertThat(result.getDescription(), equalTo(requestDto.getDescription()));
@@ -86,11 +107,11 @@ class ItemRequestServiceTest {
     @Test
     void getByUser_shouldReturnListOfOneUserRequestWhenUserIsItemOwner() {
 
-        when(userService.getById(USER_ID)).thenReturn(user);
-        when(requestRepository.findAllByOwnerId(USER_ID)).thenReturn(List.of(request));
-        when(requestMapper.toItemRequestDto(request)).thenReturn(requestDto);
+        when(requestRepository.findAllByOwnerId(eq(USER_ID), any(Pageable.class))).thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(REQUEST_ID))).thenReturn(Collections.emptyList());
+        when(requestMapper.toItemRequestDto(request, Collections.emptyList())).thenReturn(requestDto);
 
-        List<ItemRequestDto> result = requestService.getByUser(USER_ID);
+        List<ItemRequestDto> result = requestService.getByUser(USER_ID, 0, 10);
 
         assertNotNull(result);
         assertThat(result.get(0).getId(), equalTo(requestDto.getId()));
@@ -103,16 +124,17 @@ class ItemRequestServiceTest {
     @Test
     void getByUser_shouldThrowNotFoundExceptionIfWrongUser() {
 
-        when(userService.getById(USER_ID_WRONG)).thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class).when(userService).checkExists(USER_ID_WRONG);
 
-        assertThrows(NotFoundException.class, () -> requestService.getByUser(USER_ID_WRONG));
+        assertThrows(NotFoundException.class, () -> requestService.getByUser(USER_ID_WRONG, 0, 10));
     }
 
     @Test
     void getById_shouldSaveAndReturnRequest() {
 
         when(requestRepository.findById(REQUEST_ID)).thenReturn(Optional.of(request));
-        when(requestMapper.toItemRequestDto(request)).thenReturn(requestDto);
+        when(itemRepository.findAllByRequestIdIn(List.of(REQUEST_ID))).thenReturn(Collections.emptyList());
+        when(requestMapper.toItemRequestDto(request, Collections.emptyList())).thenReturn(requestDto);
 
         ItemRequestDto result = requestService.getById(USER_ID, REQUEST_ID);
 
@@ -133,8 +155,30 @@ class ItemRequestServiceTest {
 
     @Test
     void getById_shouldThrowNotFoundExceptionWhenUserServiceThrowNotFoundException() {
-        when(userService.getById(anyLong())).thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class).when(userService).checkExists(anyLong());
 
         assertThrows(NotFoundException.class, () -> requestService.getById(USER_ID, REQUEST_ID_WRONG));
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAll_shouldPushOffsetToDatabaseWhenFeedIsIncomplete() {
+        RequestFeed.Snapshot incompleteFeed = new RequestFeed(1, Duration.ofMinutes(1))
+                .get(() -> List.of(requestDto));
+        when(requestFeed.get(any())).thenReturn(incompleteFeed);
+        when(requestRepository.findAllByOwnerIdIsNot(eq(USER_ID_WRONG), any(Pageable.class)))
+                .thenReturn(List.of(request));
+        when(itemRepository.findAllByRequestIdIn(List.of(REQUEST_ID))).thenReturn(Collections.emptyList());
+        when(requestMapper.toItemRequestDto(request, Collections.emptyList())).thenReturn(requestDto);
+
+        CursorPage<ItemRequestDto> result = requestService.getAll(USER_ID_WRONG, 5, null, 2);
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(requestRepository).findAllByOwnerIdIsNot(eq(USER_ID_WRONG), pageable.capture());
+        assertThat(pageable.getValue().getOffset(), equalTo(4L));
+        assertThat(pageable.getValue().getPageSize(), equalTo(3));
+        assertThat(pageable.getValue().getSort(), equalTo(Sort.by("created").descending()
+                .and(Sort.by("id").descending())));
+        assertThat(result.getContent(), contains(requestDto));
+        assertThat(result.getNextCursor(), nullValue());
+    }
+}
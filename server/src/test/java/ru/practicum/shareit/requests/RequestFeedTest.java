@@ -0,0 +1,73 @@
+package ru.practicum.shareit.requests;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.feed.RequestFeed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+class RequestFeedTest {
+    private static final LocalDateTime CREATED = LocalDateTime.of(2022, 9, 1, 12, 0);
+    private final ItemRequestDto third = request(3L, 1L, CREATED.plusMinutes(2));
+    private final ItemRequestDto second = request(2L, 2L, CREATED.plusMinutes(1));
+    private final ItemRequestDto first = request(1L, 1L, CREATED);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void get_shouldReuseSnapshotUntilInvalidated() {
+        RequestFeed feed = new RequestFeed(10, Duration.ofMinutes(1));
+
+        RequestFeed.Snapshot snapshot = feed.get(this::load);
+
+        assertThat(feed.get(this::load), sameInstance(snapshot));
+        assertThat(loads.get(), equalTo(1));
+        feed.invalidate();
+        feed.get(this::load);
+        assertThat(loads.get(), equalTo(2));
+    }
+
+    @Test
+    void slice_shouldSkipOwnRequestsAndStartAfterCursor() {
+        RequestFeed.Snapshot snapshot = new RequestFeed(10, Duration.ofMinutes(1)).get(this::load);
+
+        assertThat(snapshot.slice(2L, null, 0, 10), equalTo(Optional.of(List.of(third, first))));
+        assertThat(snapshot.slice(2L, null, 1, 10), equalTo(Optional.of(List.of(first))));
+        assertThat(snapshot.slice(5L, new KeysetCursor(third.getCreated(), third.getId()), 0, 10).orElseThrow(),
+                contains(second, first));
+        assertThat(snapshot.slice(5L, new KeysetCursor(first.getCreated(), first.getId()), 0, 10).orElseThrow(),
+                empty());
+    }
+
+    @Test
+    void slice_shouldGiveUpBeyondTruncatedSnapshot() {
+        RequestFeed.Snapshot snapshot = new RequestFeed(3, Duration.ofMinutes(1)).get(this::load);
+
+        assertThat(snapshot.slice(5L, null, 0, 3), equalTo(Optional.of(List.of(third, second, first))));
+        assertThat(snapshot.slice(5L, null, 2, 2), equalTo(Optional.empty()));
+    }
+
+    private List<ItemRequestDto> load() {
+        loads.incrementAndGet();
+        return List.of(third, second, first);
+    }
+
+    private static ItemRequestDto request(Long id, Long ownerId, LocalDateTime created) {
+        return ItemRequestDto.builder()
+                .id(id)
+                .description("request_description")
+                .created(created)
+                .ownerId(ownerId)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.requests;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.requests.matching.RequestIndex;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+class RequestIndexTest {
+    private final RequestIndex index = new RequestIndex();
+
+    @Test
+    void match_shouldFindRequestsSharingAtLeastHalfOfTheirTerms() {
+        index.add(1L, 10L, "Нужна дрель для ремонта");
+        index.add(2L, 20L, "Ищу палатку на выходные");
+
+        List<RequestIndex.Match> matches = index.match("Дрель ударная", "Подходит для ремонта бетона");
+
+        assertThat(matches, contains(new RequestIndex.Match(1L, 10L)));
+    }
+
+    @Test
+    void match_shouldIgnoreRequestsWithTooFewCommonTerms() {
+        index.add(1L, 10L, "Нужна дрель для ремонта");
+
+        assertThat(index.match("Стол", "Подходит для работы"), empty());
+    }
+
+    @Test
+    void match_shouldIgnoreCaseAndWordEndings() {
+        index.add(1L, 10L, "Cordless DRILL");
+
+        assertThat(index.match("Drilling machine", "cordless"), contains(new RequestIndex.Match(1L, 10L)));
+    }
+
+    @Test
+    void remove_shouldDropRequestFromIndex() {
+        index.add(1L, 10L, "Cordless drill");
+
+        index.remove(1L);
+
+        assertThat(index.match("Cordless drill", null), empty());
+        assertThat(index.size(), equalTo(0));
+        assertThat(index.ownerOf(1L), nullValue());
+    }
+
+    @Test
+    void match_shouldIgnoreStopwords() {
+        index.add(1L, 10L, "Need a drill for the weekend");
+        index.add(2L, 20L, "Нужна палатка для похода");
+
+        assertThat(index.match("Garden", "Need it for the garden"), empty());
+        assertThat(index.match("Стул", "Нужна для дачи"), empty());
+    }
+
+    @Test
+    void match_shouldNotLetGenericWordsMatchShortRequests() {
+        index.add(1L, 10L, "Need a drill");
+
+        assertThat(index.match("Good item", "Anyone need something?"), empty());
+        assertThat(index.match("Drill", null), contains(new RequestIndex.Match(1L, 10L)));
+    }
+
+    @Test
+    void close_shouldStopMatchingButKeepOwner() {
+        index.add(1L, 10L, "Cordless drill");
+
+        index.close(1L);
+
+        assertThat(index.match("Cordless drill", null), empty());
+        assertThat(index.size(), equalTo(0));
+        assertThat(index.ownerOf(1L), equalTo(10L));
+    }
+}
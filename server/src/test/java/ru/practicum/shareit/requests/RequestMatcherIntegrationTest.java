@@ -0,0 +1,104 @@
+package ru.practicum.shareit.requests;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemCreateDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.matching.RequestMatchNotifier;
+import ru.practicum.shareit.requests.service.ItemRequestService;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class RequestMatcherIntegrationTest {
+    private final UserService userService;
+    private final ItemService itemService;
+    private final ItemRequestService itemRequestService;
+    @MockBean
+    private RequestMatchNotifier notifier;
+
+    @Test
+    void createItem_shouldNotifyRequesterOfMatchingRequest() {
+        UserDto requester = createUser("requester");
+        UserDto owner = createUser("owner");
+        ItemRequestDto request = itemRequestService.create(requester.getId(),
+                ItemRequestDto.builder().description("Need a cordless drill").build());
+
+        ItemDto item = itemService.create(owner.getId(), item("Drill", "Cordless drill", true));
+
+        verify(notifier).notify(eq(requester.getId()), argThat(match -> match.getRequestId().equals(request.getId())
+                && match.getItem().getId().equals(item.getId())));
+    }
+
+    @Test
+    void createItem_shouldSkipOwnRequestsAndUnavailableItems() {
+        UserDto owner = createUser("owner");
+        UserDto requester = createUser("requester");
+        itemRequestService.create(owner.getId(), ItemRequestDto.builder().description("Cordless drill").build());
+        itemRequestService.create(requester.getId(), ItemRequestDto.builder().description("Camping tent").build());
+
+        itemService.create(owner.getId(), item("Drill", "Cordless drill", true));
+        itemService.create(owner.getId(), item("Tent", "Camping tent", false));
+
+        verify(notifier, never()).notify(eq(owner.getId()), any());
+        verify(notifier, never()).notify(eq(requester.getId()), any());
+    }
+
+    @Test
+    void createItem_shouldNotNotifyRequestersOfDeletedAccounts() {
+        UserDto requester = createUser("requester");
+        UserDto owner = createUser("owner");
+        itemRequestService.create(requester.getId(), ItemRequestDto.builder().description("Cordless drill").build());
+        userService.deleteUser(requester.getId());
+
+        itemService.create(owner.getId(), item("Drill", "Cordless drill", true));
+
+        verify(notifier, never()).notify(eq(requester.getId()), any());
+    }
+
+    @Test
+    void createItem_shouldStopMatchingRequestOnceItIsAnswered() {
+        UserDto requester = createUser("requester");
+        UserDto owner = createUser("owner");
+        ItemRequestDto request = itemRequestService.create(requester.getId(),
+                ItemRequestDto.builder().description("Need a cordless drill").build());
+        ItemCreateDto answer = item("Drill", "Cordless drill", true);
+        answer.setRequestId(request.getId());
+        itemService.create(owner.getId(), answer);
+
+        itemService.create(owner.getId(), item("Drill", "Another cordless drill", true));
+
+        verify(notifier, times(1)).notify(eq(requester.getId()), any());
+    }
+
+    private UserDto createUser(String name) {
+        return userService.create(UserCreateDto.builder()
+                .name(name)
+                .email(name + "@yandex.ru")
+                .build());
+    }
+
+    private ItemCreateDto item(String name, String description, boolean available) {
+        return ItemCreateDto.builder()
+                .name(name)
+                .description(description)
+                .available(available)
+                .build();
+    }
+}
@@ -5,14 +5,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.exception.EmailDuplicateException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserImportService;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
@@ -23,6 +26,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -38,6 +42,8 @@ public class UserControllerTest {
     private ObjectMapper mapper;
     @MockBean
     private UserService userService;
+    @MockBean
+    private UserImportService userImportService;
     @Autowired
     private MockMvc mockMvc;
     private final UserCreateDto userCreateDto = new UserCreateDto(NAME, EMAIL);
@@ -126,10 +132,10 @@ public class UserControllerTest {
 
     @Test
     void getUsers_shouldReturnListOfTwoUsersWithStatus200() throws Exception {
-        User user1 = new User(ID, NAME, EMAIL);
-        User user2 = new User(2L, "Petr", "petr@mail.ru");
+        UserDto user1 = new UserDto(ID, NAME, EMAIL);
+        UserDto user2 = new UserDto(2L, "Petr", "petr@mail.ru");
 
-        when(userService.getUsers()).thenReturn(List.of(user1, user2));
+        when(userService.getUsers(null, 100)).thenReturn(new CursorPage<>(List.of(user1, user2), null));
 
         mockMvc.perform(get(URL))
                 .andExpect(status().is(200))
@@ -141,12 +147,39 @@ public class UserControllerTest {
 
     @Test
     void getUsers_shouldReturnEmptyListWithStatus200() throws Exception {
-        when(userService.getUsers()).thenReturn(List.of());
+        when(userService.getUsers(null, 100)).thenReturn(new CursorPage<>(List.of(), null));
 
         mockMvc.perform(get(URL))
                 .andExpect(status().is(200))
                 .andExpect(jsonPath("$.length()", is(0)));
 
-        verify(userService, times(1)).getUsers();
+        verify(userService, times(1)).getUsers(null, 100);
+    }
+
+    @Test
+    void getUsers_shouldAnswer304WhenListIsNotModified() throws Exception {
+        when(userService.getUsers(null, 100)).thenReturn(new CursorPage<>(List.of(userDto), null));
+
+        String etag = mockMvc.perform(get(URL))
+                .andExpect(status().is(200))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(URL)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getUsers_shouldPassCursorAndExposeNextCursor() throws Exception {
+        when(userService.getUsers("MQ", 1)).thenReturn(new CursorPage<>(List.of(userDto), "Mg"));
+
+        mockMvc.perform(get(URL)
+                        .param("cursor", "MQ")
+                        .param("size", "1"))
+                .andExpect(status().is(200))
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "Mg"))
+                .andExpect(jsonPath("$", hasSize(1)));
     }
-}
\ No newline at end of file
+}
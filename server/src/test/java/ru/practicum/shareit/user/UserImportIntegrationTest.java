@@ -0,0 +1,98 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.importing.ImportFormat;
+import ru.practicum.shareit.importing.ImportResultDto;
+import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.service.UserImportService;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Transactional
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "shareit.import.batch-size=3")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class UserImportIntegrationTest {
+    private final JdbcTemplate jdbcTemplate;
+    private final UserImportService userImportService;
+    private final UserService userService;
+
+    @Test
+    void importUsers_shouldReportDuplicateAndExistingEmailsPerLine() {
+        userService.create(UserCreateDto.builder().name("existing").email("existing@yandex.ru").build());
+        String body = "{\"name\":\"first\",\"email\":\"first@yandex.ru\"}\n" +
+                "{\"name\":\"existing\",\"email\":\"existing@yandex.ru\"}\n" +
+                "{\"name\":\"again\",\"email\":\"first@yandex.ru\"}\n" +
+                "{\"name\":\"broken\",\"email\":\"not an email\"}\n" +
+                "{\"name\":\"second\",\"email\":\"second@yandex.ru\"}\n";
+
+        ImportResultDto result = userImportService.importUsers(ImportFormat.NDJSON, stream(body));
+
+        assertThat(result.getImported(), equalTo(2L));
+        assertThat(result.getFailed(), equalTo(3L));
+        assertThat(result.getErrors(), hasSize(3));
+        assertThat(result.getErrors().get(0).getLine(), equalTo(3L));
+        assertThat(result.getErrors().get(0).getMessage(), equalTo("Email duplicates line 1"));
+        assertThat(result.getErrors().get(1).getLine(), equalTo(4L));
+        assertThat(result.getErrors().get(2).getLine(), equalTo(2L));
+        assertThat(result.getErrors().get(2).getMessage(), equalTo("Email exists"));
+        assertThat(jdbcTemplate.queryForObject("select count(*) from users where email = ?", Long.class,
+                "existing@yandex.ru"), equalTo(1L));
+    }
+
+    @Test
+    void importUsers_shouldMakeImportedUsersVisibleToExistenceChecks() {
+        String body = "name,email\n" +
+                "imported,imported@yandex.ru\n";
+
+        ImportResultDto result = userImportService.importUsers(ImportFormat.CSV, stream(body));
+
+        Long id = jdbcTemplate.queryForObject("select id from users where email = ?", Long.class,
+                "imported@yandex.ru");
+        assertThat(result.getImported(), equalTo(1L));
+        userService.checkExists(id);
+        assertThat(userImportService.importUsers(ImportFormat.CSV, stream(body)).getErrors().get(0).getMessage(),
+                equalTo("Email exists"));
+    }
+
+    @Test
+    void importUsers_shouldKeepFlushedBatchAndDropPendingOneWhenStreamFails() {
+        String body = "{\"name\":\"user 1\",\"email\":\"user1@yandex.ru\"}\n" +
+                "{\"name\":\"user 2\",\"email\":\"user2@yandex.ru\"}\n" +
+                "{\"name\":\"user 3\",\"email\":\"user3@yandex.ru\"}\n" +
+                "{\"name\":\"user 4\",\"email\":\"user4@yandex.ru\"}\n";
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> userImportService.importUsers(
+                ImportFormat.NDJSON, new SequenceInputStream(stream(body), failing)));
+
+        assertThat(e.getCause().getMessage(), equalTo("Connection reset"));
+        assertThat(jdbcTemplate.queryForList("select name from users where email like 'user_@yandex.ru' order by id",
+                String.class), contains("user 1", "user 2", "user 3"));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,21 +1,34 @@
 package ru.practicum.shareit.user;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exception.EmailDuplicateException;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.dto.UserCreateDto;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -23,6 +36,8 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 public class UserIntegrationTest {
     private final JdbcTemplate jdbcTemplate;
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
     private final UserCreateDto userCreateDto = UserCreateDto.builder()
             .name("test")
             .email("test@yandex.ru")
@@ -46,6 +61,92 @@ public class UserIntegrationTest {
         assertThat(user.getEmail(), equalTo(userCreateDto.getEmail()));
     }
 
+    @Test
+    void update_shouldChangeOnlyGivenFields() {
+        UserDto created = userService.create(userCreateDto);
+
+        UserDto result = userService.update(new UserDto(null, "renamed", null), created.getId());
+
+        assertThat(result.getName(), equalTo("renamed"));
+        assertThat(result.getEmail(), equalTo(userCreateDto.getEmail()));
+        assertThat(jdbcTemplate.queryForObject("select version from users where id = ?", Long.class,
+                created.getId()), equalTo(1L));
+    }
+
+    @Test
+    void update_shouldDetachOnlyUpdatedUser() {
+        UserDto created = userService.create(userCreateDto);
+        UserDto other = userService.create(UserCreateDto.builder().name("other").email("other@yandex.ru").build());
+        User stale = entityManager.find(User.class, created.getId());
+        User untouched = entityManager.find(User.class, other.getId());
+
+        userService.update(new UserDto(null, "renamed", null), created.getId());
+
+        assertThat(entityManager.contains(stale), equalTo(false));
+        assertThat(entityManager.contains(untouched), equalTo(true));
+        assertThat(entityManager.find(User.class, created.getId()).getName(), equalTo("renamed"));
+    }
+
+    @Test
+    void update_shouldRejectEmailOfAnotherUser() {
+        userService.create(userCreateDto);
+        UserDto other = userService.create(UserCreateDto.builder().name("other").email("other@yandex.ru").build());
+
+        assertThrows(EmailDuplicateException.class, () -> userService.update(
+                new UserDto(null, null, userCreateDto.getEmail()), other.getId()));
+    }
+
+    @Test
+    void getUsers_shouldWalkAllPagesWithCursor() {
+        for (int i = 0; i < 5; i++) {
+            userService.create(UserCreateDto.builder().name("user" + i).email("user" + i + "@yandex.ru").build());
+        }
+
+        int pages = 0;
+        int users = 0;
+        String cursor = null;
+        do {
+            CursorPage<UserDto> page = userService.getUsers(cursor, 2);
+            users += page.getContent().size();
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(users, equalTo(5));
+        assertThat(pages, equalTo(3));
+    }
+
+    @Test
+    void exportUsers_shouldStreamOneJsonLinePerActiveUser() throws IOException {
+        UserDto first = userService.create(userCreateDto);
+        UserDto deleted = userService.create(UserCreateDto.builder().name("gone").email("gone@yandex.ru").build());
+        userService.deleteUser(deleted.getId());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        userService.exportUsers().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, equalTo(1));
+        JsonNode user = objectMapper.readTree(lines[0]);
+        assertThat(user.get("id").asLong(), equalTo(first.getId()));
+        assertThat(user.get("email").asText(), equalTo(first.getEmail()));
+    }
+
+    @Test
+    void getByIds_shouldKeepRequestedOrderAndReportMissingIds() {
+        UserDto first = userService.create(userCreateDto);
+        UserDto second = userService.create(UserCreateDto.builder().name("second").email("second@yandex.ru").build());
+        UserDto deleted = userService.create(UserCreateDto.builder().name("gone").email("gone@yandex.ru").build());
+        userService.deleteUser(deleted.getId());
+
+        LookupResultDto<UserDto> result = userService.getByIds(List.of(second.getId(), deleted.getId(),
+                first.getId(), second.getId()));
+
+        assertThat(result.getFound().stream().map(UserDto::getId).collect(Collectors.toList()),
+                contains(second.getId(), first.getId()));
+        assertThat(result.getMissing(), contains(deleted.getId()));
+    }
+
     private User mapRowToUser(ResultSet rs) throws SQLException {
         return new User(
                 rs.getLong("id"),
@@ -6,8 +6,21 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import ru.practicum.shareit.exception.EmailDuplicateException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.exporting.NdjsonExporter;
+import ru.practicum.shareit.item.cache.ItemCache;
+import ru.practicum.shareit.item.cache.ItemSearchCache;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.lookup.IdLookup;
+import ru.practicum.shareit.lookup.LookupResultDto;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.user.cache.UserEmailFilter;
+import ru.practicum.shareit.user.cache.UserIdIndex;
+import ru.practicum.shareit.user.cache.UserTombstones;
 import ru.practicum.shareit.user.dto.UserCreateDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -17,6 +30,8 @@ import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -33,6 +48,20 @@ class UserServiceImplTest {
     private static final String EMAIL = "maks@yandex.ru";
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserTombstones userTombstones;
+    @Mock
+    private UserIdIndex userIdIndex;
+    @Mock
+    private UserEmailFilter userEmailFilter;
+    @Mock
+    private NdjsonExporter ndjsonExporter;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemCache itemCache;
+    @Mock
+    private ItemSearchCache itemSearchCache;
     private UserService userService;
     private final UserCreateDto userCreateDto = new UserCreateDto(NAME, EMAIL);
     private final UserDto userDtoUpdate = new UserDto(USER_ID, UPDATE_NAME, EMAIL);
@@ -40,7 +69,26 @@ class UserServiceImplTest {
 
     @BeforeEach
     void init() {
-        userService = new UserServiceImpl(userRepository);
+        userService = new UserServiceImpl(userRepository, userTombstones, userIdIndex, userEmailFilter,
+                ndjsonExporter, itemRepository, itemCache, itemSearchCache);
+    }
+
+    @Test
+    void getByIds_shouldRejectTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, IdLookup.MAX_IDS + 1).boxed().collect(Collectors.toList());
+
+        assertThrows(ValidationException.class, () -> userService.getByIds(ids));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getByIds_shouldReturnEmptyResultWithoutQueryingForNoIds() {
+        LookupResultDto<UserDto> result = userService.getByIds(List.of());
+
+        assertThat(result.getFound(), empty());
+        assertThat(result.getMissing(), empty());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -50,6 +98,7 @@ class UserServiceImplTest {
         UserDto result = userService.create(userCreateDto);
 
         verify(userRepository, times(1)).save(any());
+        verify(userIdIndex).add(USER_ID);
         assertNotNull(result);
         assertThat(result.getId(), equalTo(user.getId()));
         assertThat(result.getName(), equalTo(user.getName()));
@@ -70,61 +119,118 @@ class UserServiceImplTest {
     }
 
     @Test
-    void update_shouldUpdateUserName() {
-        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenAnswer(returnsFirstArg());
+    void update_shouldUpdateUserWithSingleStatement() {
+        when(userRepository.updateFields(USER_ID, UPDATE_NAME, EMAIL)).thenReturn(1);
 
         UserDto result = userService.update(userDtoUpdate, USER_ID);
 
         assertNotNull(result);
         assertThat(result.getName(), equalTo(UPDATE_NAME));
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times((1))).save(any(User.class));
+        assertThat(result.getEmail(), equalTo(EMAIL));
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).save(any(User.class));
+    }
 
+    @Test
+    void update_shouldReloadUserIfOnlyNameChanges() {
+        User updated = new User(USER_ID, UPDATE_NAME, EMAIL);
+        when(userRepository.updateFields(USER_ID, UPDATE_NAME, null)).thenReturn(1);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(updated));
+
+        UserDto result = userService.update(new UserDto(null, UPDATE_NAME, null), USER_ID);
+
+        assertThat(result.getName(), equalTo(UPDATE_NAME));
+        assertThat(result.getEmail(), equalTo(EMAIL));
     }
 
     @Test
     void update_shouldThrowNotFoundExceptionIfRepositoryIsEmpty() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userRepository.updateFields(USER_ID, UPDATE_NAME, EMAIL)).thenReturn(0);
 
         final NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> userService.update(userDtoUpdate, USER_ID));
 
         Assertions.assertEquals("User not found: id=1", exception.getMessage());
-        verify(userRepository, times(1)).findById(USER_ID);
     }
 
     @Test
     void update_shouldThrowDuplicateEmailException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenThrow(new EmailDuplicateException("Email exists"));
+        when(userRepository.updateFields(USER_ID, UPDATE_NAME, EMAIL))
+                .thenThrow(new DataIntegrityViolationException("uq_user_email"));
 
         final EmailDuplicateException exception = assertThrows(
                 EmailDuplicateException.class,
                 () -> userService.update(userDtoUpdate, USER_ID));
 
         Assertions.assertEquals("Email exists", exception.getMessage());
-        verify(userRepository, times(1)).findById(USER_ID);
-        verify(userRepository, times((1))).save(any(User.class));
     }
 
     @Test
-    void delete_shouldInvokeRepositoryDeleteOneTime() {
-        userRepository.deleteById(USER_ID);
-        verify(userRepository, times(1)).deleteById(USER_ID);
+    void delete_shouldSoftDeleteAndTombstoneUser() {
+        when(userRepository.softDeleteById(USER_ID)).thenReturn(1);
+
+        userService.deleteUser(USER_ID);
+
+        verify(userRepository, never()).deleteById(anyLong());
+        verify(userTombstones, times(1)).add(USER_ID);
+        verify(userIdIndex).remove(USER_ID);
+        verify(itemCache).invalidateOwner(USER_ID);
+        verifyNoInteractions(itemSearchCache);
+    }
+
+    @Test
+    void delete_shouldSoftDeleteOwnerItemsAndEvictThemFromCaches() {
+        when(userRepository.softDeleteById(USER_ID)).thenReturn(1);
+        when(itemRepository.softDeleteAllByOwnerId(USER_ID)).thenReturn(2);
+
+        userService.deleteUser(USER_ID);
+
+        verify(itemCache).invalidateOwner(USER_ID);
+        verify(itemSearchCache).invalidateAll();
     }
 
     @Test
     void delete_shouldThrowNotFoundExceptionIfInvokeRepositoryWithWrongUserId() {
-        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.softDeleteById(USER_ID)).thenReturn(0);
 
         final NotFoundException exception = assertThrows(
                 NotFoundException.class,
                 () -> userService.deleteUser(USER_ID));
 
         Assertions.assertEquals(String.format("User not found: id=%d", USER_ID), exception.getMessage());
-        verify(userRepository, never()).deleteById(anyLong());
+        verify(userTombstones, never()).add(anyLong());
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void getReference_shouldThrowNotFoundExceptionForUserMissingFromIndexAndRepository() {
+        when(userIdIndex.contains(USER_ID)).thenReturn(false);
+        when(userRepository.existsById(USER_ID)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> userService.getReference(USER_ID));
+
+        verify(userRepository, never()).getReferenceById(anyLong());
+        verify(userIdIndex, never()).add(anyLong());
+    }
+
+    @Test
+    void checkExists_shouldAddUserMissingFromIndexButPresentInRepository() {
+        when(userIdIndex.contains(USER_ID)).thenReturn(false);
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+
+        userService.checkExists(USER_ID);
+
+        verify(userIdIndex).add(USER_ID);
+    }
+
+    @Test
+    void checkExists_shouldNotQueryRepository() {
+        when(userIdIndex.contains(USER_ID)).thenReturn(true);
+
+        userService.checkExists(USER_ID);
+
+        verifyNoInteractions(userRepository);
     }
 
     @Test
@@ -154,15 +260,33 @@ class UserServiceImplTest {
 
     @Test
     void getUsers_shouldReturnUserList() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(userRepository.findPageAfter(eq(0L), any())).thenReturn(List.of(new UserDto(USER_ID, NAME, EMAIL)));
 
-        List<User> result = userService.getUsers();
+        CursorPage<UserDto> result = userService.getUsers(null, 10);
 
-        verify(userRepository, times(1)).findAll();
         assertNotNull(result);
-        assertThat(result, hasSize(1));
-        assertThat(result.get(0).getId(), equalTo(user.getId()));
-        assertThat(result.get(0).getName(), equalTo(user.getName()));
-        assertThat(result.get(0).getEmail(), equalTo(user.getEmail()));
+        assertThat(result.getContent(), hasSize(1));
+        assertThat(result.getContent().get(0).getId(), equalTo(user.getId()));
+        assertThat(result.getContent().get(0).getName(), equalTo(user.getName()));
+        assertThat(result.getContent().get(0).getEmail(), equalTo(user.getEmail()));
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getUsers_shouldContinueAfterCursorAndReturnNextCursor() {
+        when(userRepository.findPageAfter(eq(5L), any())).thenReturn(List.of(
+                new UserDto(6L, NAME, EMAIL), new UserDto(7L, NAME, EMAIL), new UserDto(8L, NAME, EMAIL)));
+
+        CursorPage<UserDto> result = userService.getUsers(new IdCursor(5L).encode(), 2);
+
+        assertThat(result.getContent(), hasSize(2));
+        assertThat(IdCursor.decode(result.getNextCursor()).getId(), equalTo(7L));
+    }
+
+    @Test
+    void getUsers_shouldThrowValidationExceptionForMalformedCursor() {
+        assertThrows(ValidationException.class, () -> userService.getUsers("???", 2));
+
+        verifyNoInteractions(userRepository);
     }
 }
\ No newline at end of file